@@ -0,0 +1,57 @@
+-- search-two-phase.sql
+-- Compares single-pass search (ts_headline evaluated alongside ts_rank) with the
+-- two-phase query used by NoteRepository.searchNotes (headline only for the page).
+--
+-- Run against a migrated local database (docker compose up postgres):
+--   psql -h localhost -U knowledgebrain -d knowledgebrain -f benchmarks/search-two-phase.sql
+--
+-- Everything runs in one transaction that is rolled back, so no data is left behind.
+
+BEGIN;
+
+-- 1. A bench user with 12,000 notes that all match 'kafka'
+INSERT INTO users (id, email, password_hash, display_name)
+VALUES ('00000000-0000-0000-0000-00000000b001', 'bench-search@example.com', 'x', 'Bench');
+
+INSERT INTO notes (user_id, title, content)
+SELECT '00000000-0000-0000-0000-00000000b001',
+       'Kafka consumer notes ' || g,
+       repeat('Partition rebalancing and consumer group lag for kafka topic ' || g || '. ', 60)
+FROM generate_series(1, 12000) AS g;
+
+ANALYZE notes;
+
+\timing on
+
+-- 2. Before: headline computed in the same SELECT as the rank
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT n.id,
+       ts_rank(n.search_vector, plainto_tsquery('english', 'kafka')) AS rank,
+       ts_headline('english', coalesce(n.title, '') || ' ' || coalesce(n.content, ''),
+           plainto_tsquery('english', 'kafka'),
+           'StartSel=<b>, StopSel=</b>, MaxWords=35, MinWords=15, MaxFragments=2') AS headline
+FROM notes n
+WHERE n.user_id = '00000000-0000-0000-0000-00000000b001'
+  AND n.search_vector @@ plainto_tsquery('english', 'kafka')
+ORDER BY rank DESC
+LIMIT 21 OFFSET 0;
+
+-- 3. After: rank and page ids first, headline only for the 21 returned rows
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT n.id,
+       ranked.rank,
+       ts_headline('english', coalesce(n.title, '') || ' ' || coalesce(n.content, ''),
+           plainto_tsquery('english', 'kafka'),
+           'StartSel=<b>, StopSel=</b>, MaxWords=35, MinWords=15, MaxFragments=2') AS headline
+FROM (
+    SELECT m.id, ts_rank(m.search_vector, plainto_tsquery('english', 'kafka')) AS rank
+    FROM notes m
+    WHERE m.user_id = '00000000-0000-0000-0000-00000000b001'
+      AND m.search_vector @@ plainto_tsquery('english', 'kafka')
+    ORDER BY rank DESC, m.id
+    LIMIT 21 OFFSET 0
+) ranked
+JOIN notes n ON n.id = ranked.id
+ORDER BY ranked.rank DESC, n.id;
+
+ROLLBACK;
@@ -0,0 +1,12 @@
+package com.knowledgebrain.cache;
+
+/**
+ * Invalidation message broadcast to every node over Redis pub/sub.
+ * {@code cacheName} is null for USER invalidations, which apply to all caches.
+ */
+public record CacheInvalidation(String origin, Type type, String cacheName, String key) {
+
+    public enum Type {
+        EVICT, CLEAR, USER
+    }
+}
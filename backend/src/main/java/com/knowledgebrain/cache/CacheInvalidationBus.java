@@ -0,0 +1,77 @@
+package com.knowledgebrain.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Fans cache invalidations out to every node so in-process (L1) state never
+ * outlives a write made elsewhere. Messages are applied locally first and then
+ * published; each node ignores the echo of its own messages.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationBus implements MessageListener {
+
+    private static final String CHANNEL = "kb:cache:invalidation";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final List<Consumer<CacheInvalidation>> handlers = new CopyOnWriteArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    public void subscribe(Consumer<CacheInvalidation> handler) {
+        handlers.add(handler);
+    }
+
+    public void publish(CacheInvalidation.Type type, String cacheName, String key) {
+        CacheInvalidation invalidation = new CacheInvalidation(nodeId, type, cacheName, key);
+        dispatch(invalidation);
+        try {
+            redisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(invalidation));
+        } catch (Exception e) {
+            // Peers fall back to their L1 TTL; never fail the write because of this.
+            log.error("Failed to publish cache invalidation {}: {}", invalidation, e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            CacheInvalidation invalidation = objectMapper.readValue(
+                    new String(message.getBody(), StandardCharsets.UTF_8), CacheInvalidation.class);
+            if (!nodeId.equals(invalidation.origin())) {
+                dispatch(invalidation);
+            }
+        } catch (Exception e) {
+            log.error("Failed to apply cache invalidation: {}", e.getMessage(), e);
+        }
+    }
+
+    private void dispatch(CacheInvalidation invalidation) {
+        for (Consumer<CacheInvalidation> handler : handlers) {
+            handler.accept(invalidation);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.knowledgebrain.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Bounded in-process cache (L1) in front of a shared remote cache (L2, Redis).
+ * Reads try L1 first and populate it from L2 on a miss. Evictions are applied
+ * to both tiers and broadcast so other nodes drop their L1 copies as well.
+ * L1 keys are the string form of the cache key, matching how Redis stores them.
+ */
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final Cache<String, Object> localCache;
+    private final org.springframework.cache.Cache remoteCache;
+    private final CacheInvalidationBus invalidationBus;
+
+    public TwoLevelCache(String name,
+                         Cache<String, Object> localCache,
+                         org.springframework.cache.Cache remoteCache,
+                         CacheInvalidationBus invalidationBus) {
+        super(false);
+        this.name = name;
+        this.localCache = localCache;
+        this.remoteCache = remoteCache;
+        this.invalidationBus = invalidationBus;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return localCache;
+    }
+
+    public Cache<String, Object> getLocalCache() {
+        return localCache;
+    }
+
+    public org.springframework.cache.Cache getRemoteCache() {
+        return remoteCache;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String localKey = String.valueOf(key);
+        Object value = localCache.getIfPresent(localKey);
+        if (value != null) {
+            return value;
+        }
+        ValueWrapper wrapper = remoteCache.get(key);
+        if (wrapper == null || wrapper.get() == null) {
+            return null;
+        }
+        localCache.put(localKey, wrapper.get());
+        return wrapper.get();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value = remoteCache.get(key, valueLoader);
+        if (value != null) {
+            localCache.put(String.valueOf(key), value);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remoteCache.put(key, value);
+        if (value != null) {
+            localCache.put(String.valueOf(key), value);
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        remoteCache.evict(key);
+        invalidationBus.publish(CacheInvalidation.Type.EVICT, name, String.valueOf(key));
+    }
+
+    @Override
+    public void clear() {
+        remoteCache.clear();
+        invalidationBus.publish(CacheInvalidation.Type.CLEAR, name, null);
+    }
+
+    void evictLocal(String key) {
+        localCache.invalidate(key);
+    }
+
+    void evictLocalByPrefix(String prefix) {
+        localCache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    void clearLocal() {
+        localCache.invalidateAll();
+    }
+}
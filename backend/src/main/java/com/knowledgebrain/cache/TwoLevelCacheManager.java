@@ -0,0 +1,80 @@
+package com.knowledgebrain.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Wraps a remote cache manager so every cache it returns gets a bounded,
+ * short-lived in-process tier. The local TTL caps staleness if an
+ * invalidation message is ever missed.
+ */
+public class TwoLevelCacheManager implements CacheManager {
+
+    private final CacheManager remoteCacheManager;
+    private final CacheInvalidationBus invalidationBus;
+    private final long localMaximumSize;
+    private final Duration localTtl;
+
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager remoteCacheManager,
+                                CacheInvalidationBus invalidationBus,
+                                long localMaximumSize,
+                                Duration localTtl) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.invalidationBus = invalidationBus;
+        this.localMaximumSize = localMaximumSize;
+        this.localTtl = localTtl;
+        invalidationBus.subscribe(this::onInvalidation);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoLevelCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> new TwoLevelCache(
+                n,
+                Caffeine.newBuilder()
+                        .maximumSize(localMaximumSize)
+                        .expireAfterWrite(localTtl)
+                        .recordStats()
+                        .build(),
+                remote,
+                invalidationBus));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    private void onInvalidation(CacheInvalidation invalidation) {
+        if (invalidation.type() == CacheInvalidation.Type.USER) {
+            // Keys of user-scoped caches start with "<userId>:"
+            caches.values().forEach(cache -> cache.evictLocalByPrefix(invalidation.key() + ":"));
+            return;
+        }
+        // Only caches already materialised on this node can hold local entries
+        TwoLevelCache cache = caches.get(invalidation.cacheName());
+        if (cache == null) {
+            return;
+        }
+        if (invalidation.type() == CacheInvalidation.Type.EVICT) {
+            cache.evictLocal(invalidation.key());
+        } else {
+            cache.clearLocal();
+        }
+    }
+}
@@ -1,22 +1,62 @@
 package com.knowledgebrain.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Configuration
+@Slf4j
 public class AsyncConfig {
 
+    /**
+     * Bounded executor for @Async work, notably after-commit WebSocket delivery.
+     * When the queue is full tasks are dropped and counted instead of running on
+     * the caller's thread, so a slow broker can never back up into request latency.
+     */
     @Bean(name = "taskExecutor")
-    public Executor taskExecutor() {
+    public Executor taskExecutor(MeterRegistry meterRegistry) {
+        Counter rejected = Counter.builder("async.executor.rejected")
+                .description("Tasks dropped because the async executor queue was full")
+                .tag("executor", "taskExecutor")
+                .register(meterRegistry);
+
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(4);
         executor.setMaxPoolSize(8);
         executor.setQueueCapacity(100);
         executor.setThreadNamePrefix("kb-async-");
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            log.warn("Async executor saturated (queue={}), dropping task", pool.getQueue().size());
+        });
         executor.initialize();
+
+        Gauge.builder("async.executor.queue.depth", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("Tasks waiting in the async executor queue")
+                .tag("executor", "taskExecutor")
+                .register(meterRegistry);
+        Gauge.builder("async.executor.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Async executor threads currently running a task")
+                .tag("executor", "taskExecutor")
+                .register(meterRegistry);
         return executor;
     }
+
+    /**
+     * Virtual-thread executor for short blocking continuations (database or Redis
+     * calls) that must not run on CPU-sized pools such as password hashing. The
+     * connection pools bound how many actually proceed at once.
+     */
+    @Bean(name = "blockingExecutor", destroyMethod = "close")
+    public ExecutorService blockingExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("kb-blocking-", 0).factory());
+    }
 }
@@ -0,0 +1,29 @@
+package com.knowledgebrain.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@Configuration
+@Slf4j
+public class SchedulingConfig {
+
+    /**
+     * Dedicated pool for @Scheduled jobs. The STOMP broker registers its own
+     * heartbeat scheduler, which stops Boot from creating one; without this bean the
+     * jobs would share that scheduler's thread and a slow run (e.g. a purge)
+     * would delay heartbeats. Picked up by name by @EnableScheduling.
+     */
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${app.scheduling.pool-size:4}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("kb-scheduled-");
+        scheduler.setErrorHandler(t -> log.error("Scheduled task failed: {}", t.getMessage(), t));
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(10);
+        return scheduler;
+    }
+}
@@ -3,16 +3,17 @@ package com.knowledgebrain.controller;
 import com.knowledgebrain.dto.auth.AuthResponse;
 import com.knowledgebrain.dto.auth.LoginRequest;
 import com.knowledgebrain.dto.auth.RegisterRequest;
-import com.knowledgebrain.entity.RefreshToken;
 import com.knowledgebrain.security.UserPrincipal;
 import com.knowledgebrain.service.AuthService;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -21,13 +22,15 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @RestController
 @RequestMapping("/api/auth")
-@RequiredArgsConstructor
 public class AuthController {
 
     private final AuthService authService;
+    private final Executor blockingExecutor;
 
     @Value("${app.jwt.refresh-token-expiration}")
     private java.time.Duration refreshTokenExpiration;
@@ -38,26 +41,34 @@ public class AuthController {
     @Value("${app.cookie.domain:}")
     private String cookieDomain;
 
+    public AuthController(AuthService authService, @Qualifier("blockingExecutor") Executor blockingExecutor) {
+        this.authService = authService;
+        this.blockingExecutor = blockingExecutor;
+    }
+
+    /**
+     * Completes asynchronously: the request thread is released while the password
+     * is hashed on the bounded hashing pool; the refresh token is then issued on the
+     * blocking executor, off the hashing threads.
+     */
     @PostMapping("/register")
-    public ResponseEntity<AuthResponse> register(
-            @Valid @RequestBody RegisterRequest request,
-            HttpServletResponse response
-    ) {
-        AuthResponse authResponse = authService.register(request);
-        RefreshToken refreshToken = authService.createRefreshToken(authResponse.getUserId());
-        addRefreshTokenCookie(response, refreshToken.getToken());
-        return ResponseEntity.status(HttpStatus.CREATED).body(authResponse);
+    public CompletableFuture<ResponseEntity<AuthResponse>> register(@Valid @RequestBody RegisterRequest request) {
+        return authService.register(request).thenApplyAsync(authResponse -> {
+            String refreshToken = authService.createRefreshToken(authResponse);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .header(HttpHeaders.SET_COOKIE, refreshTokenCookie(refreshToken).toString())
+                    .body(authResponse);
+        }, blockingExecutor);
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(
-            @Valid @RequestBody LoginRequest request,
-            HttpServletResponse response
-    ) {
-        AuthResponse authResponse = authService.login(request);
-        RefreshToken refreshToken = authService.createRefreshToken(authResponse.getUserId());
-        addRefreshTokenCookie(response, refreshToken.getToken());
-        return ResponseEntity.ok(authResponse);
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@Valid @RequestBody LoginRequest request) {
+        return authService.login(request).thenApplyAsync(authResponse -> {
+            String refreshToken = authService.createRefreshToken(authResponse);
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.SET_COOKIE, refreshTokenCookie(refreshToken).toString())
+                    .body(authResponse);
+        }, blockingExecutor);
     }
 
     @PostMapping("/refresh")
@@ -71,13 +82,10 @@ public class AuthController {
                     .body(null);
         }
 
-        AuthResponse authResponse = authService.refreshAccessToken(refreshTokenValue);
+        AuthService.RefreshedSession session = authService.refresh(refreshTokenValue);
+        response.addHeader(HttpHeaders.SET_COOKIE, refreshTokenCookie(session.refreshToken()).toString());
 
-        // Rotate refresh token
-        RefreshToken newRefreshToken = authService.rotateRefreshToken(refreshTokenValue);
-        addRefreshTokenCookie(response, newRefreshToken.getToken());
-
-        return ResponseEntity.ok(authResponse);
+        return ResponseEntity.ok(session.auth());
     }
 
     @PostMapping("/logout")
@@ -88,34 +96,32 @@ public class AuthController {
         if (principal != null) {
             authService.logout(principal.getId());
         }
-        clearRefreshTokenCookie(response);
+        response.addHeader(HttpHeaders.SET_COOKIE, clearedRefreshTokenCookie().toString());
         return ResponseEntity.ok(Map.of("message", "Logged out successfully"));
     }
 
-    private void addRefreshTokenCookie(HttpServletResponse response, String token) {
-        Cookie cookie = new Cookie("refresh_token", token);
-        cookie.setHttpOnly(true);
-        cookie.setSecure(secureCookie);
-        cookie.setPath("/api/auth");
-        cookie.setMaxAge((int) refreshTokenExpiration.toSeconds());
-        if (!cookieDomain.isBlank()) {
-            cookie.setDomain(cookieDomain);
-        }
-        cookie.setAttribute("SameSite", "Strict");
-        response.addCookie(cookie);
+    private ResponseCookie refreshTokenCookie(String token) {
+        return refreshTokenCookieBuilder(token)
+                .maxAge(refreshTokenExpiration)
+                .build();
+    }
+
+    private ResponseCookie clearedRefreshTokenCookie() {
+        return refreshTokenCookieBuilder("")
+                .maxAge(0)
+                .build();
     }
 
-    private void clearRefreshTokenCookie(HttpServletResponse response) {
-        Cookie cookie = new Cookie("refresh_token", "");
-        cookie.setHttpOnly(true);
-        cookie.setSecure(secureCookie);
-        cookie.setPath("/api/auth");
-        cookie.setMaxAge(0);
+    private ResponseCookie.ResponseCookieBuilder refreshTokenCookieBuilder(String value) {
+        ResponseCookie.ResponseCookieBuilder builder = ResponseCookie.from("refresh_token", value)
+                .httpOnly(true)
+                .secure(secureCookie)
+                .path("/api/auth")
+                .sameSite("Strict");
         if (!cookieDomain.isBlank()) {
-            cookie.setDomain(cookieDomain);
+            builder.domain(cookieDomain);
         }
-        cookie.setAttribute("SameSite", "Strict");
-        response.addCookie(cookie);
+        return builder;
     }
 
     private String extractRefreshTokenFromCookie(HttpServletRequest request) {
@@ -1,18 +1,28 @@
 package com.knowledgebrain.controller;
 
+import com.knowledgebrain.dto.CursorResponse;
 import com.knowledgebrain.dto.PagedResponse;
+import com.knowledgebrain.dto.note.BatchNoteRequest;
+import com.knowledgebrain.dto.note.BatchNoteResponse;
 import com.knowledgebrain.dto.note.CreateNoteRequest;
+import com.knowledgebrain.dto.note.NoteChangesResponse;
+import com.knowledgebrain.dto.note.NoteFields;
 import com.knowledgebrain.dto.note.NoteResponse;
 import com.knowledgebrain.dto.note.NoteSearchResponse;
+import com.knowledgebrain.dto.note.SearchTotal;
 import com.knowledgebrain.dto.note.UpdateNoteRequest;
 import com.knowledgebrain.security.UserPrincipal;
 import com.knowledgebrain.service.NoteService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Instant;
 import java.util.UUID;
 
 @RestController
@@ -20,6 +30,9 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class NoteController {
 
+    // Lets browsers keep the body but revalidate every time (overrides Spring Security's no-store)
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final NoteService noteService;
 
     @PostMapping
@@ -30,44 +43,116 @@ public class NoteController {
         return noteService.createNote(principal.getId(), request);
     }
 
+    /**
+     * Applies a mixed list of creates, updates and deletes atomically, for import
+     * and sync clients. Emits one aggregated BATCH event instead of one per note.
+     */
+    @PostMapping("/batch")
+    public BatchNoteResponse applyBatch(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @Valid @RequestBody BatchNoteRequest request) {
+        return noteService.applyBatch(principal.getId(), request);
+    }
+
+    /**
+     * Paged listing. {@code fields} selects a sparse fieldset, e.g.
+     * fields=id,title,excerpt,updatedAt; omitting content avoids reading it at all.
+     * Carries a strong ETag from the user's id and list version; a matching
+     * If-None-Match is answered with 304 before the page is loaded. List versions
+     * are per-user counters, so the id keeps one user's validator from matching
+     * another's cached list in a shared browser.
+     */
     @GetMapping
-    public PagedResponse<NoteResponse> getNotes(
+    public ResponseEntity<PagedResponse<NoteResponse>> getNotes(
             @AuthenticationPrincipal UserPrincipal principal,
             @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        long listVersion = noteService.getListVersion(principal.getId());
+        String etag = "\"l" + principal.getId() + "." + listVersion + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(REVALIDATE)
+                .body(noteService.getNotes(principal.getId(), page, size, NoteFields.fromParam(fields), listVersion));
+    }
+
+    /**
+     * Keyset-paginated listing. Pass the previous response's nextCursor to
+     * continue; latency stays flat however deep the client scrolls.
+     */
+    @GetMapping("/cursor")
+    public CursorResponse<NoteResponse> getNotesByCursor(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "20") int size) {
-        return noteService.getNotes(principal.getId(), page, size);
+        return noteService.getNotesByCursor(principal.getId(), cursor, size);
+    }
+
+    /**
+     * Delta sync: changes (including deletes) since the given sync token.
+     * Omit {@code since} for a full initial sync; keep calling while hasMore is true.
+     */
+    @GetMapping("/changes")
+    public NoteChangesResponse getChanges(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "100") int limit) {
+        return noteService.getChanges(principal.getId(), since, limit);
     }
 
     /**
      * Full-text search. Must be mapped BEFORE /{noteId} to avoid
      * Spring interpreting "search" as a UUID path variable.
+     * Totals are only computed when requested via total=estimate|exact.
      */
     @GetMapping("/search")
     public PagedResponse<NoteSearchResponse> searchNotes(
             @AuthenticationPrincipal UserPrincipal principal,
             @RequestParam("q") String query,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String total) {
 
         if (query == null || query.isBlank()) {
             return PagedResponse.empty();
         }
-        return noteService.searchNotes(principal.getId(), query, page, size);
+        return noteService.searchNotes(principal.getId(), query, page, size, SearchTotal.fromParam(total));
     }
 
     @GetMapping("/{noteId}")
-    public NoteResponse getNoteById(
+    public ResponseEntity<NoteResponse> getNoteById(
             @AuthenticationPrincipal UserPrincipal principal,
-            @PathVariable UUID noteId) {
-        return noteService.getNoteById(principal.getId(), noteId);
+            @PathVariable UUID noteId,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        // Answer revalidation from updated_at alone; content is loaded only on a mismatch
+        Instant version = noteService.getNoteVersion(principal.getId(), noteId);
+        String etag = "\"n" + version.getEpochSecond() + "." + version.getNano() + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(REVALIDATE)
+                .body(noteService.getNoteById(principal.getId(), noteId, NoteFields.fromParam(fields)));
     }
 
+    /**
+     * Updates a note. With {@code autosave=true} the change is buffered and written
+     * to the database shortly after; a plain PUT is an explicit save and writes
+     * immediately, including any pending autosaved changes.
+     */
     @PutMapping("/{noteId}")
     public NoteResponse updateNote(
             @AuthenticationPrincipal UserPrincipal principal,
             @PathVariable UUID noteId,
+            @RequestParam(defaultValue = "false") boolean autosave,
             @Valid @RequestBody UpdateNoteRequest request) {
-        return noteService.updateNote(principal.getId(), noteId, request);
+        return noteService.updateNote(principal.getId(), noteId, request, autosave);
     }
 
     @DeleteMapping("/{noteId}")
@@ -0,0 +1,33 @@
+package com.knowledgebrain.controller;
+
+import com.knowledgebrain.dto.websocket.NoteEvent;
+import com.knowledgebrain.dto.websocket.ReplayRequest;
+import com.knowledgebrain.websocket.NoteEventReplayBuffer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+import java.util.UUID;
+
+/**
+ * STOMP endpoint for reconnecting clients: replays the note events sent after
+ * the client's last seen sequence, or answers RESYNC when they are no longer
+ * buffered. The answer goes to the requesting session only.
+ */
+@Controller
+@RequiredArgsConstructor
+public class NoteEventReplayController {
+
+    private final NoteEventReplayBuffer replayBuffer;
+
+    @MessageMapping("/notes/replay")
+    @SendToUser(destinations = "/queue/notes", broadcast = false)
+    public NoteEvent replay(@Payload ReplayRequest request, Principal principal) {
+        // The STOMP principal's name is the user id (see StompAuthentication)
+        UUID userId = UUID.fromString(principal.getName());
+        return replayBuffer.replay(userId, request.getEpoch(), request.getAfterSeq());
+    }
+}
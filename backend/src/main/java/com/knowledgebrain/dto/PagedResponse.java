@@ -6,6 +6,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.io.Serializable;
 import java.util.Collections;
@@ -24,8 +25,9 @@ public class PagedResponse<T> implements Serializable {
     private List<T> content;
     private int page;
     private int size;
-    private long totalElements;
-    private int totalPages;
+    private Long totalElements;   // null when the total was not computed
+    private Integer totalPages;
+    private Boolean totalExact;   // false when totalElements is a capped lower bound
     private boolean first;
     private boolean last;
 
@@ -36,18 +38,47 @@ public class PagedResponse<T> implements Serializable {
                 .size(page.getSize())
                 .totalElements(page.getTotalElements())
                 .totalPages(page.getTotalPages())
+                .totalExact(true)
                 .first(page.isFirst())
                 .last(page.isLast())
                 .build();
     }
 
+    /**
+     * Builds a response from a Slice, which Spring Data fetches without a count query.
+     * Totals are omitted.
+     */
+    public static <E, T> PagedResponse<T> from(Slice<E> slice, Function<E, T> mapper) {
+        return PagedResponse.<T>builder()
+                .content(slice.getContent().stream().map(mapper).toList())
+                .page(slice.getNumber())
+                .size(slice.getSize())
+                .first(slice.isFirst())
+                .last(slice.isLast())
+                .build();
+    }
+
+    /**
+     * Builds a response from a Slice plus a total obtained elsewhere
+     * (a maintained counter or an explicitly requested count).
+     */
+    public static <E, T> PagedResponse<T> from(Slice<E> slice, Function<E, T> mapper,
+                                               long totalElements, boolean totalExact) {
+        PagedResponse<T> response = from(slice, mapper);
+        response.setTotalElements(totalElements);
+        response.setTotalPages(slice.getSize() == 0 ? 1 : (int) Math.ceil((double) totalElements / slice.getSize()));
+        response.setTotalExact(totalExact);
+        return response;
+    }
+
     public static <T> PagedResponse<T> empty() {
         return PagedResponse.<T>builder()
                 .content(Collections.emptyList())
                 .page(0)
                 .size(0)
-                .totalElements(0)
+                .totalElements(0L)
                 .totalPages(0)
+                .totalExact(true)
                 .first(true)
                 .last(true)
                 .build();
@@ -0,0 +1,33 @@
+package com.knowledgebrain.dto.note;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchNoteOperation {
+
+    public enum Op {
+        CREATE, UPDATE, DELETE
+    }
+
+    @NotNull(message = "Operation type is required")
+    private Op op;
+
+    private UUID id;  // required for UPDATE and DELETE
+
+    @Size(max = 255, message = "Title must not exceed 255 characters")
+    private String title;
+
+    private String content;
+}
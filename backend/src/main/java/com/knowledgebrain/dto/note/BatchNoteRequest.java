@@ -0,0 +1,24 @@
+package com.knowledgebrain.dto.note;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchNoteRequest {
+
+    @NotEmpty(message = "At least one operation is required")
+    @Size(max = 500, message = "A batch must not exceed 500 operations")
+    private List<@Valid BatchNoteOperation> operations;
+}
@@ -0,0 +1,22 @@
+package com.knowledgebrain.dto.note;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchNoteResponse {
+
+    private List<NoteResponse> created;
+    private List<NoteResponse> updated;
+    private List<UUID> deleted;
+}
@@ -0,0 +1,34 @@
+package com.knowledgebrain.dto.note;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One entry of the change feed. UPSERT carries the current note;
+ * DELETED carries only the id and deletion time.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NoteChange implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Type {
+        UPSERT, DELETED
+    }
+
+    private Type type;
+    private UUID noteId;
+    private NoteResponse note;
+    private Instant deletedAt;
+}
@@ -0,0 +1,34 @@
+package com.knowledgebrain.dto.note;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Changes since a sync token. Clients store {@code syncToken} and pass it as
+ * {@code since} on the next call; while {@code hasMore} is true they should
+ * call again immediately.
+ * <p>
+ * {@code reset} is true when the token was older than the tombstone retention:
+ * deletes it had not seen may be gone, so the feed restarted from the beginning
+ * and the client should drop its local copy before applying these changes.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NoteChangesResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<NoteChange> changes;
+    private String syncToken;
+    private boolean hasMore;
+    private boolean reset;
+}
@@ -0,0 +1,107 @@
+package com.knowledgebrain.dto.note;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Sparse fieldset parsed from a {@code fields=} request parameter.
+ * Unselected fields are nulled out and therefore omitted from the JSON
+ * (default-property-inclusion is non_null). When content is not selected,
+ * the service reads from the summary projection and never loads it from SQL.
+ */
+public final class NoteFields {
+
+    public enum Field {
+        ID("id"), TITLE("title"), CONTENT("content"), EXCERPT("excerpt"),
+        USER_ID("userId"), CREATED_AT("createdAt"), UPDATED_AT("updatedAt");
+
+        private final String param;
+
+        Field(String param) {
+            this.param = param;
+        }
+    }
+
+    public static final NoteFields ALL = new NoteFields(EnumSet.allOf(Field.class));
+
+    private final Set<Field> selected;
+
+    private NoteFields(Set<Field> selected) {
+        this.selected = Collections.unmodifiableSet(selected);
+    }
+
+    public static NoteFields fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return ALL;
+        }
+        EnumSet<Field> selected = EnumSet.noneOf(Field.class);
+        for (String name : value.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            selected.add(find(trimmed));
+        }
+        return selected.isEmpty() ? ALL : new NoteFields(selected);
+    }
+
+    private static Field find(String name) {
+        for (Field field : Field.values()) {
+            if (field.param.equalsIgnoreCase(name)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field '" + name + "'. Allowed: "
+                + EnumSet.allOf(Field.class).stream().map(f -> f.param).collect(Collectors.joining(", ")));
+    }
+
+    public boolean includesContent() {
+        return selected.contains(Field.CONTENT);
+    }
+
+    /**
+     * Stable key for caching, independent of parameter order.
+     */
+    public String cacheKey() {
+        if (this == ALL || selected.size() == Field.values().length) {
+            return "all";
+        }
+        return selected.stream().map(f -> f.param).collect(Collectors.joining(",")).toLowerCase(Locale.ROOT);
+    }
+
+    public NoteResponse apply(NoteResponse response) {
+        if (selected.size() == Field.values().length) {
+            return response;
+        }
+        if (!selected.contains(Field.ID)) {
+            response.setId(null);
+        }
+        if (!selected.contains(Field.TITLE)) {
+            response.setTitle(null);
+        }
+        if (!selected.contains(Field.CONTENT)) {
+            response.setContent(null);
+        }
+        if (!selected.contains(Field.EXCERPT)) {
+            response.setExcerpt(null);
+        }
+        if (!selected.contains(Field.USER_ID)) {
+            response.setUserId(null);
+        }
+        if (!selected.contains(Field.CREATED_AT)) {
+            response.setCreatedAt(null);
+        }
+        if (!selected.contains(Field.UPDATED_AT)) {
+            response.setUpdatedAt(null);
+        }
+        return response;
+    }
+
+    @Override
+    public String toString() {
+        return cacheKey();
+    }
+}
@@ -1,6 +1,8 @@
 package com.knowledgebrain.dto.note;
 
 import com.knowledgebrain.entity.Note;
+import com.knowledgebrain.repository.NoteProjection;
+import com.knowledgebrain.repository.NoteSummaryProjection;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -23,6 +25,7 @@ public class NoteResponse implements Serializable {
     private UUID id;
     private String title;
     private String content;
+    private String excerpt;
     private UUID userId;
     private Instant createdAt;
     private Instant updatedAt;
@@ -32,6 +35,30 @@ public class NoteResponse implements Serializable {
                 .id(note.getId())
                 .title(note.getTitle())
                 .content(note.getContent())
+                .excerpt(note.getExcerpt())
+                .userId(note.getUserId())
+                .createdAt(note.getCreatedAt())
+                .updatedAt(note.getUpdatedAt())
+                .build();
+    }
+
+    public static NoteResponse from(NoteProjection note) {
+        return NoteResponse.builder()
+                .id(note.getId())
+                .title(note.getTitle())
+                .content(note.getContent())
+                .excerpt(note.getExcerpt())
+                .userId(note.getUserId())
+                .createdAt(note.getCreatedAt())
+                .updatedAt(note.getUpdatedAt())
+                .build();
+    }
+
+    public static NoteResponse from(NoteSummaryProjection note) {
+        return NoteResponse.builder()
+                .id(note.getId())
+                .title(note.getTitle())
+                .excerpt(note.getExcerpt())
                 .userId(note.getUserId())
                 .createdAt(note.getCreatedAt())
                 .updatedAt(note.getUpdatedAt())
@@ -0,0 +1,23 @@
+package com.knowledgebrain.dto.note;
+
+import java.util.Locale;
+
+/**
+ * How much work search should spend on reporting a total.
+ * NONE skips counting entirely; ESTIMATE counts up to a cap and reports a
+ * lower bound beyond it; EXACT evaluates the full match.
+ */
+public enum SearchTotal {
+    NONE, ESTIMATE, EXACT;
+
+    public static SearchTotal fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return NONE;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("total must be one of: none, estimate, exact");
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.knowledgebrain.dto.websocket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Single-splice text diff: replace {@code deleteCount} UTF-16 code units at
+ * {@code start} with {@code insert}. Valid only against the version whose
+ * updatedAt equals {@code baseUpdatedAt}; clients holding any other version
+ * must refetch the note instead of applying it.
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteDelta implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private int start;
+    private int deleteCount;
+    private String insert;
+    private Instant baseUpdatedAt;
+
+    /**
+     * Trims the common prefix and suffix of the two texts. Editor saves change one
+     * contiguous region, so this captures them exactly in O(n) without a full diff.
+     * Boundaries never split a surrogate pair.
+     */
+    public static NoteDelta between(String before, String after, Instant baseUpdatedAt) {
+        int max = Math.min(before.length(), after.length());
+
+        int prefix = 0;
+        while (prefix < max && before.charAt(prefix) == after.charAt(prefix)) {
+            prefix++;
+        }
+        if (prefix > 0 && Character.isHighSurrogate(before.charAt(prefix - 1))) {
+            prefix--;
+        }
+
+        int suffix = 0;
+        while (suffix < max - prefix
+                && before.charAt(before.length() - 1 - suffix) == after.charAt(after.length() - 1 - suffix)) {
+            suffix++;
+        }
+        if (suffix > 0 && Character.isLowSurrogate(after.charAt(after.length() - suffix))) {
+            suffix--;
+        }
+
+        return NoteDelta.builder()
+                .start(prefix)
+                .deleteCount(before.length() - prefix - suffix)
+                .insert(after.substring(prefix, after.length() - suffix))
+                .baseUpdatedAt(baseUpdatedAt)
+                .build();
+    }
+}
@@ -5,9 +5,11 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 import java.io.Serializable;
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 @Getter
@@ -19,14 +21,25 @@ public class NoteEvent implements Serializable {
     private static final long serialVersionUID = 1L;
 
     public enum Type {
-        CREATED, UPDATED, DELETED
+        CREATED, UPDATED, PATCHED, DELETED, BATCH,
+        REPLAY,  // missed events re-sent after a reconnect, in sequence order
+        RESYNC   // the gap is no longer buffered; the client must refetch
     }
 
     private Type type;
     private UUID noteId;
-    private NoteResponse note;  // null for DELETED events
+    private NoteResponse note;  // null for DELETED events; without content for PATCHED
+    private NoteDelta patch;  // only for PATCHED events
+    private List<NoteEvent> events;  // only for BATCH and REPLAY events
     private Instant timestamp;
 
+    // Per-user delivery position, assigned by the replay buffer. A new epoch
+    // means the sequence restarted and earlier positions are meaningless.
+    @Setter
+    private Long seq;
+    @Setter
+    private String epoch;
+
     public static NoteEvent created(NoteResponse note) {
         return NoteEvent.builder()
                 .type(Type.CREATED)
@@ -45,6 +58,28 @@ public class NoteEvent implements Serializable {
                 .build();
     }
 
+    /**
+     * Update sent as a content delta: {@code note} carries the new metadata
+     * (title, excerpt, updatedAt) and {@code patch} the change to the body.
+     */
+    public static NoteEvent patched(NoteResponse note, NoteDelta patch) {
+        NoteResponse metadata = NoteResponse.builder()
+                .id(note.getId())
+                .title(note.getTitle())
+                .excerpt(note.getExcerpt())
+                .userId(note.getUserId())
+                .createdAt(note.getCreatedAt())
+                .updatedAt(note.getUpdatedAt())
+                .build();
+        return NoteEvent.builder()
+                .type(Type.PATCHED)
+                .noteId(note.getId())
+                .note(metadata)
+                .patch(patch)
+                .timestamp(Instant.now())
+                .build();
+    }
+
     public static NoteEvent deleted(UUID noteId) {
         return NoteEvent.builder()
                 .type(Type.DELETED)
@@ -53,4 +88,36 @@ public class NoteEvent implements Serializable {
                 .timestamp(Instant.now())
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Aggregates the individual events of a batch write into a single message.
+     */
+    public static NoteEvent batch(List<NoteEvent> events) {
+        return NoteEvent.builder()
+                .type(Type.BATCH)
+                .events(events)
+                .timestamp(Instant.now())
+                .build();
+    }
+
+    public static NoteEvent replay(List<NoteEvent> events) {
+        return NoteEvent.builder()
+                .type(Type.REPLAY)
+                .events(events)
+                .timestamp(Instant.now())
+                .build();
+    }
+
+    /**
+     * Tells the client its gap cannot be replayed; it should refetch and continue
+     * from the given position.
+     */
+    public static NoteEvent resync(String epoch, long seq) {
+        return NoteEvent.builder()
+                .type(Type.RESYNC)
+                .epoch(epoch)
+                .seq(seq)
+                .timestamp(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,20 @@
+package com.knowledgebrain.dto.websocket;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Sent by a reconnecting client to {@code /app/notes/replay} with the last
+ * event position it processed.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplayRequest {
+
+    private String epoch;
+    private long afterSeq;
+}
@@ -8,17 +8,23 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.SQLRestriction;
 
+import java.time.Instant;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
 @Entity
 @Table(name = "notes")
+@SQLRestriction("deleted_at IS NULL")  // tombstoned rows are only visible to the change feed
 @Getter
 @Setter
 @NoArgsConstructor
@@ -26,6 +32,10 @@ import java.util.UUID;
 @Builder
 public class Note extends BaseEntity {
 
+    private static final int EXCERPT_LENGTH = 200;
+    // Unicode-aware like Postgres [[:space:]]; plain \s in Java is ASCII-only
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+", Pattern.UNICODE_CHARACTER_CLASS);
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
@@ -39,7 +49,46 @@ public class Note extends BaseEntity {
     @Column(columnDefinition = "TEXT")
     private String content;
 
+    // Written by the trg_notes_excerpt_update trigger; computed here too so a
+    // persisted or updated entity carries the same value without a re-read
+    @Column(length = 200, insertable = false, updatable = false)
+    private String excerpt;
+
+    @Column(name = "deleted_at")
+    private Instant deletedAt;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", insertable = false, updatable = false)
     private User user;
+
+    @PrePersist
+    @PreUpdate
+    protected void computeExcerpt() {
+        this.excerpt = excerptOf(content);
+    }
+
+    /**
+     * Java twin of notes_excerpt_update() (V7):
+     * {@code left(btrim(regexp_replace(coalesce(content, ''), '\s+', ' ', 'g')), 200)}.
+     */
+    public static String excerptOf(String content) {
+        if (content == null) {
+            return "";
+        }
+        String collapsed = WHITESPACE.matcher(content).replaceAll(" ");
+        int start = 0;
+        int end = collapsed.length();
+        while (start < end && collapsed.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && collapsed.charAt(end - 1) == ' ') {
+            end--;
+        }
+        String trimmed = collapsed.substring(start, end);
+        // left() counts characters, not UTF-16 units
+        if (trimmed.codePointCount(0, trimmed.length()) <= EXCERPT_LENGTH) {
+            return trimmed;
+        }
+        return trimmed.substring(0, trimmed.offsetByCodePoints(0, EXCERPT_LENGTH));
+    }
 }
@@ -0,0 +1,21 @@
+package com.knowledgebrain.exception;
+
+import java.time.Duration;
+
+/**
+ * A bounded resource (e.g. the password hashing pool) is saturated. Mapped to
+ * 503 with a Retry-After header so clients back off instead of queueing.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
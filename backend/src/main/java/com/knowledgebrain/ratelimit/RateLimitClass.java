@@ -0,0 +1,38 @@
+package com.knowledgebrain.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.Locale;
+
+/**
+ * Endpoint classes with their own limits ({@code app.ratelimit.<class>.*}).
+ * AUTH is keyed by client IP because its callers are not authenticated yet;
+ * the others by user, falling back to IP.
+ */
+public enum RateLimitClass {
+    AUTH, SEARCH, API;
+
+    /**
+     * The class a request is limited under, or null for unlimited paths
+     * (health checks, actuator, WebSocket handshakes).
+     */
+    public static RateLimitClass of(HttpServletRequest request) {
+        String path = request.getServletPath();
+        if (path.equals("/api/auth/login")
+                || path.equals("/api/auth/register")
+                || path.equals("/api/auth/refresh")) {
+            return AUTH;
+        }
+        if (path.equals("/api/notes/search")) {
+            return SEARCH;
+        }
+        if (path.startsWith("/api/") && !path.equals("/api/health")) {
+            return API;
+        }
+        return null;
+    }
+
+    public String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
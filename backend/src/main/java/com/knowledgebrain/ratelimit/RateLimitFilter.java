@@ -0,0 +1,95 @@
+package com.knowledgebrain.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.knowledgebrain.security.UserPrincipal;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Throttles API requests per endpoint class before they can reach a database
+ * connection. Runs right after {@link com.knowledgebrain.security.JwtAuthenticationFilter},
+ * so authenticated callers are limited per user and anonymous ones per client IP
+ * (behind a proxy, enable {@code server.forward-headers-strategy} so this is the
+ * real client address). Rejections are 429 with a Retry-After header.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.ratelimit.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        RateLimitClass limitClass = RateLimitClass.of(request);
+        if (limitClass == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Duration wait = rateLimiter.tryAcquire(limitClass, subject(limitClass, request));
+        if (!wait.isZero()) {
+            reject(response, wait);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private String subject(RateLimitClass limitClass, HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (limitClass != RateLimitClass.AUTH
+                && authentication != null
+                && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return "user:" + principal.getId();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, Duration wait) throws IOException {
+        HttpStatus status = HttpStatus.TOO_MANY_REQUESTS;
+        long retryAfterSeconds = Math.max(1, (wait.toMillis() + 999) / 1000);
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", status.value());
+        body.put("error", status.getReasonPhrase());
+        body.put("message", "Too many requests, please retry shortly");
+        body.put("timestamp", Instant.now().toString());
+
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled;
+    }
+}
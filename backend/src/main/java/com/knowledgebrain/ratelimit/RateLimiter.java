@@ -0,0 +1,173 @@
+package com.knowledgebrain.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-key request limits. The fast path is a local lock-free {@link TokenBucket}
+ * per class and key, so admission never waits on the network. Nodes coordinate
+ * approximately: every {@code app.ratelimit.sync-interval-ms} each node adds the
+ * requests it admitted per key to a Redis counter for the current window (one
+ * pipelined round trip), and a key whose cluster-wide count exceeds what its
+ * limit allows for one window is blocked on that node until the window ends.
+ * A single client spread across nodes can therefore overshoot by at most about
+ * one window's worth of requests; when Redis is unavailable every node still
+ * enforces its local buckets.
+ */
+@Component
+@Slf4j
+public class RateLimiter {
+
+    private static final String KEY_PREFIX = "ratelimit:";
+
+    public record Limit(double ratePerSecond, int burst) {
+    }
+
+    private static final class Limiter {
+        private final TokenBucket bucket;
+        private final LongAdder unsynced = new LongAdder();
+        private volatile long blockedUntilMillis;
+
+        private Limiter(Limit limit) {
+            this.bucket = new TokenBucket(limit.ratePerSecond(), limit.burst());
+        }
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final Map<RateLimitClass, Limit> limits = new EnumMap<>(RateLimitClass.class);
+    private final Map<RateLimitClass, Counter> allowed = new EnumMap<>(RateLimitClass.class);
+    private final Map<RateLimitClass, Counter> rejected = new EnumMap<>(RateLimitClass.class);
+    private final Cache<String, Limiter> limiters;
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final long windowMillis;
+    private final Counter syncFailures;
+
+    public RateLimiter(StringRedisTemplate redisTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.ratelimit.auth.rate-per-second:2}") double authRate,
+                       @Value("${app.ratelimit.auth.burst:20}") int authBurst,
+                       @Value("${app.ratelimit.search.rate-per-second:5}") double searchRate,
+                       @Value("${app.ratelimit.search.burst:20}") int searchBurst,
+                       @Value("${app.ratelimit.api.rate-per-second:50}") double apiRate,
+                       @Value("${app.ratelimit.api.burst:100}") int apiBurst,
+                       @Value("${app.ratelimit.sync-interval-ms:1000}") long windowMillis,
+                       @Value("${app.ratelimit.idle-ttl:10m}") Duration idleTtl,
+                       @Value("${app.ratelimit.max-keys:100000}") long maxKeys) {
+        this.redisTemplate = redisTemplate;
+        this.windowMillis = windowMillis;
+        limits.put(RateLimitClass.AUTH, new Limit(authRate, authBurst));
+        limits.put(RateLimitClass.SEARCH, new Limit(searchRate, searchBurst));
+        limits.put(RateLimitClass.API, new Limit(apiRate, apiBurst));
+        for (RateLimitClass limitClass : RateLimitClass.values()) {
+            allowed.put(limitClass, Counter.builder("ratelimit.requests")
+                    .tag("class", limitClass.key())
+                    .tag("outcome", "allowed")
+                    .register(meterRegistry));
+            rejected.put(limitClass, Counter.builder("ratelimit.requests")
+                    .tag("class", limitClass.key())
+                    .tag("outcome", "rejected")
+                    .register(meterRegistry));
+        }
+        // An idle bucket is full again long before it expires, so evicting it loses nothing.
+        this.limiters = Caffeine.newBuilder()
+                .expireAfterAccess(idleTtl)
+                .maximumSize(maxKeys)
+                .build();
+        this.syncFailures = Counter.builder("ratelimit.sync.failures")
+                .description("Failed rate limit syncs with Redis; local limits still apply")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits one request for {@code subject} under {@code limitClass}.
+     *
+     * @return {@link Duration#ZERO} when admitted, otherwise how long the caller should wait
+     */
+    public Duration tryAcquire(RateLimitClass limitClass, String subject) {
+        String key = limitClass.key() + ":" + subject;
+        Limiter limiter = limiters.get(key, k -> new Limiter(limits.get(limitClass)));
+
+        long blockedFor = limiter.blockedUntilMillis - System.currentTimeMillis();
+        Duration wait = blockedFor > 0 ? Duration.ofMillis(blockedFor) : limiter.bucket.tryAcquire();
+        if (!wait.isZero()) {
+            rejected.get(limitClass).increment();
+            return wait;
+        }
+
+        limiter.unsynced.increment();
+        dirty.add(key);
+        allowed.get(limitClass).increment();
+        return Duration.ZERO;
+    }
+
+    @Scheduled(fixedDelayString = "${app.ratelimit.sync-interval-ms:1000}")
+    public void sync() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>();
+        List<Long> counts = new ArrayList<>();
+        for (String key : dirty) {
+            dirty.remove(key);
+            Limiter limiter = limiters.getIfPresent(key);
+            long count = limiter != null ? limiter.unsynced.sumThenReset() : 0;
+            if (count > 0) {
+                keys.add(key);
+                counts.add(count);
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        long window = System.currentTimeMillis() / windowMillis;
+        long windowEnd = (window + 1) * windowMillis;
+        try {
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                for (int i = 0; i < keys.size(); i++) {
+                    String redisKey = KEY_PREFIX + keys.get(i) + ":" + window;
+                    redis.incrBy(redisKey, counts.get(i));
+                    redis.pExpire(redisKey, windowMillis * 2);
+                }
+                return null;
+            });
+            for (int i = 0; i < keys.size(); i++) {
+                long clusterCount = ((Number) results.get(i * 2)).longValue();
+                Limit limit = limits.get(classOf(keys.get(i)));
+                if (clusterCount > limit.ratePerSecond() * windowMillis / 1000.0 + limit.burst()) {
+                    Limiter limiter = limiters.getIfPresent(keys.get(i));
+                    if (limiter != null) {
+                        limiter.blockedUntilMillis = windowEnd;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            syncFailures.increment();
+            log.warn("Rate limit sync failed, enforcing local limits only: {}", e.getMessage());
+        }
+    }
+
+    private static RateLimitClass classOf(String key) {
+        return RateLimitClass.valueOf(key.substring(0, key.indexOf(':')).toUpperCase(Locale.ROOT));
+    }
+}
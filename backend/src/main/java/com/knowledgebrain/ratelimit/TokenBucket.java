@@ -0,0 +1,50 @@
+package com.knowledgebrain.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, implemented as the generic cell rate algorithm: the whole
+ * state is one "theoretical arrival time", advanced with a CAS per admitted request.
+ * Admits {@code ratePerSecond} on average with bursts of up to {@code burst}.
+ */
+public final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(double ratePerSecond, int burst) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("rate and burst must be positive");
+        }
+        this.intervalNanos = Math.max(1L, (long) (1_000_000_000L / ratePerSecond));
+        this.burstToleranceNanos = intervalNanos * (burst - 1);
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Takes one token if available.
+     *
+     * @return {@link Duration#ZERO} when admitted, otherwise how long until a token frees up
+     */
+    public Duration tryAcquire() {
+        return tryAcquire(1);
+    }
+
+    public Duration tryAcquire(int permits) {
+        while (true) {
+            long now = System.nanoTime();
+            long current = theoreticalArrival.get();
+            long start = Math.max(current, now);
+            long next = start + intervalNanos * permits;
+            long wait = next - now - burstToleranceNanos - intervalNanos;
+            if (wait > 0) {
+                return Duration.ofNanos(wait);
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return Duration.ZERO;
+            }
+        }
+    }
+}
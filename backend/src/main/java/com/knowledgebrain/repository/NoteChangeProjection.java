@@ -0,0 +1,14 @@
+package com.knowledgebrain.repository;
+
+import java.time.Instant;
+
+/**
+ * A row of the change feed: the full note plus its tombstone marker and the
+ * position (writing transaction id) it occupies in the feed.
+ */
+public interface NoteChangeProjection extends NoteProjection {
+
+    Instant getDeletedAt();
+
+    long getChangeXid();
+}
@@ -0,0 +1,25 @@
+package com.knowledgebrain.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Interface projection for a full note row read straight from SQL,
+ * e.g. from an UPDATE ... RETURNING, without hydrating a managed entity.
+ */
+public interface NoteProjection {
+
+    UUID getId();
+
+    String getTitle();
+
+    String getContent();
+
+    String getExcerpt();
+
+    UUID getUserId();
+
+    Instant getCreatedAt();
+
+    Instant getUpdatedAt();
+}
@@ -3,11 +3,17 @@ package com.knowledgebrain.repository;
 import com.knowledgebrain.entity.Note;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -16,18 +22,223 @@ public interface NoteRepository extends JpaRepository<Note, UUID> {
 
     Page<Note> findByUserId(UUID userId, Pageable pageable);
 
+    /**
+     * Same as {@link #findByUserId} but returned as a Slice, so Spring Data
+     * fetches one extra row instead of issuing a count(*).
+     */
+    Slice<Note> findSliceByUserId(UUID userId, Pageable pageable);
+
     Optional<Note> findByIdAndUserId(UUID id, UUID userId);
 
-    void deleteByIdAndUserId(UUID id, UUID userId);
+    /**
+     * List view without the content column: selects only the summary fields,
+     * so neither the TEXT body nor a managed entity is loaded.
+     */
+    @Query("""
+            SELECT n.id AS id, n.title AS title, n.excerpt AS excerpt, n.userId AS userId,
+                   n.createdAt AS createdAt, n.updatedAt AS updatedAt
+            FROM Note n
+            WHERE n.userId = :userId
+            """)
+    Slice<NoteSummaryProjection> findSummariesByUserId(@Param("userId") UUID userId, Pageable pageable);
+
+    @Query("""
+            SELECT n.id AS id, n.title AS title, n.excerpt AS excerpt, n.userId AS userId,
+                   n.createdAt AS createdAt, n.updatedAt AS updatedAt
+            FROM Note n
+            WHERE n.id = :id AND n.userId = :userId
+            """)
+    Optional<NoteSummaryProjection> findSummaryByIdAndUserId(@Param("id") UUID id, @Param("userId") UUID userId);
+
+    /**
+     * Ownership-scoped delete in a single statement, without loading the entity first.
+     * The row is tombstoned rather than removed so the change feed can report it;
+     * content is dropped immediately. Returns the number of rows deleted
+     * (0 when the note does not exist, is not owned or is already deleted).
+     */
+    @Modifying
+    @Query(
+            value = """
+            UPDATE notes
+            SET deleted_at = now(), content = NULL
+            WHERE id = :id
+              AND user_id = :userId
+              AND deleted_at IS NULL
+            """,
+            nativeQuery = true
+    )
+    int deleteByIdAndUserId(@Param("id") UUID id, @Param("userId") UUID userId);
+
+    /**
+     * Ownership-scoped partial update in one round trip: null arguments keep the
+     * current column value, and RETURNING hands back the new row so no entity is
+     * loaded or dirty-checked. Empty when the note does not exist or is not owned.
+     * The casts pin parameter types for PostgreSQL when a null is bound.
+     */
+    @Query(
+            value = """
+            UPDATE notes
+            SET title = coalesce(CAST(:title AS VARCHAR), title),
+                content = coalesce(CAST(:content AS TEXT), content),
+                updated_at = now()
+            WHERE id = :id
+              AND user_id = :userId
+              AND deleted_at IS NULL
+            RETURNING
+                id,
+                title,
+                content,
+                excerpt,
+                user_id AS userId,
+                created_at AS createdAt,
+                updated_at AS updatedAt
+            """,
+            nativeQuery = true
+    )
+    Optional<NoteProjection> updateOwnedNote(
+            @Param("id") UUID id,
+            @Param("userId") UUID userId,
+            @Param("title") String title,
+            @Param("content") String content
+    );
+
+    /**
+     * {@link #updateOwnedNote} guarded by the row version the change was based on:
+     * empty when the note was written after {@code baseUpdatedAt} (or is missing), so
+     * a delayed write-behind flush never overwrites a newer save.
+     */
+    @Query(
+            value = """
+            UPDATE notes
+            SET title = coalesce(CAST(:title AS VARCHAR), title),
+                content = coalesce(CAST(:content AS TEXT), content),
+                updated_at = now()
+            WHERE id = :id
+              AND user_id = :userId
+              AND deleted_at IS NULL
+              AND updated_at = :baseUpdatedAt
+            RETURNING
+                id,
+                title,
+                content,
+                excerpt,
+                user_id AS userId,
+                created_at AS createdAt,
+                updated_at AS updatedAt
+            """,
+            nativeQuery = true
+    )
+    Optional<NoteProjection> updateOwnedNoteIfUnchanged(
+            @Param("id") UUID id,
+            @Param("userId") UUID userId,
+            @Param("title") String title,
+            @Param("content") String content,
+            @Param("baseUpdatedAt") Instant baseUpdatedAt
+    );
+
+    List<Note> findAllByIdInAndUserId(Collection<UUID> ids, UUID userId);
 
-    long countByUserId(UUID userId);
+    /**
+     * Single-statement bulk tombstone scoped to the owner. Returns the number of rows
+     * deleted so callers can detect ids that did not exist or belong to someone else.
+     */
+    @Modifying
+    @Query(
+            value = """
+            UPDATE notes
+            SET deleted_at = now(), content = NULL
+            WHERE user_id = :userId
+              AND id IN (:ids)
+              AND deleted_at IS NULL
+            """,
+            nativeQuery = true
+    )
+    int deleteOwnedNotes(@Param("userId") UUID userId, @Param("ids") Collection<UUID> ids);
+
+    /**
+     * Note count from the trigger-maintained user_note_stats counter (V6),
+     * a primary-key lookup instead of count(*) over the user's notes.
+     */
+    @Query(
+            value = "SELECT coalesce((SELECT s.note_count FROM user_note_stats s WHERE s.user_id = :userId), 0)",
+            nativeQuery = true
+    )
+    long findNoteCount(@Param("userId") UUID userId);
+
+    /**
+     * Per-user list version, bumped by trigger on every insert, update and delete (V8).
+     * Backs list ETags with a primary-key lookup.
+     */
+    @Query(
+            value = "SELECT coalesce((SELECT s.list_version FROM user_note_stats s WHERE s.user_id = :userId), 0)",
+            nativeQuery = true
+    )
+    long findListVersion(@Param("userId") UUID userId);
+
+    /**
+     * Metadata-only lookup for conditional GETs; never reads content.
+     */
+    @Query("SELECT n.updatedAt FROM Note n WHERE n.id = :id AND n.userId = :userId")
+    Optional<Instant> findUpdatedAtByIdAndUserId(@Param("id") UUID id, @Param("userId") UUID userId);
+
+    /**
+     * First window of a keyset-paginated listing, newest first.
+     * The id tiebreaker keeps the order total when updated_at collides.
+     */
+    @Query(
+            value = """
+            SELECT n.*
+            FROM notes n
+            WHERE n.user_id = :userId
+              AND n.deleted_at IS NULL
+            ORDER BY n.updated_at DESC, n.id DESC
+            LIMIT :limit
+            """,
+            nativeQuery = true
+    )
+    List<Note> findFirstWindowByUserId(
+            @Param("userId") UUID userId,
+            @Param("limit") int limit
+    );
+
+    /**
+     * Next window after the (updatedAt, id) seek position. The predicate is written
+     * as a range on updated_at plus a tiebreak so it stays an index range scan on
+     * idx_notes_user_id_updated_at — cost is independent of how deep the client is.
+     */
+    @Query(
+            value = """
+            SELECT n.*
+            FROM notes n
+            WHERE n.user_id = :userId
+              AND n.updated_at <= :updatedAt
+              AND (n.updated_at < :updatedAt OR n.id < :id)
+              AND n.deleted_at IS NULL
+            ORDER BY n.updated_at DESC, n.id DESC
+            LIMIT :limit
+            """,
+            nativeQuery = true
+    )
+    List<Note> findWindowByUserIdAfter(
+            @Param("userId") UUID userId,
+            @Param("updatedAt") Instant updatedAt,
+            @Param("id") UUID id,
+            @Param("limit") int limit
+    );
 
     /**
      * Full-text search across title (weight A) and content (weight B).
      * Uses plainto_tsquery for safe input handling — no special syntax required from users.
      * ts_rank scores relevance; title matches rank higher due to weight A.
-     * ts_headline generates a snippet with matching terms highlighted in bold tags.
      * Results are scoped to the requesting user and ordered by relevance descending.
+     * <p>
+     * Runs in two phases: the inner query ranks matches from the GIN index and
+     * pages their ids, then ts_headline — which re-parses the full document and is
+     * the most expensive step — runs only for the rows of the returned page.
+     * A subquery with LIMIT is never flattened, so the split is guaranteed.
+     * Paging is explicit (:limit/:offset) because it must apply to the inner query;
+     * callers fetch one extra row to detect a next page. Totals are counted
+     * separately, and only on request.
      */
     @Query(
             value = """
@@ -38,27 +249,156 @@ public interface NoteRepository extends JpaRepository<Note, UUID> {
                 n.user_id AS userId,
                 n.created_at AS createdAt,
                 n.updated_at AS updatedAt,
-                ts_rank(n.search_vector, plainto_tsquery('english', :query)) AS rank,
+                ranked.rank,
                 ts_headline('english', coalesce(n.title, '') || ' ' || coalesce(n.content, ''),
                     plainto_tsquery('english', :query),
                     'StartSel=<b>, StopSel=</b>, MaxWords=35, MinWords=15, MaxFragments=2'
                 ) AS headline
+            FROM (
+                SELECT m.id, ts_rank(m.search_vector, plainto_tsquery('english', :query)) AS rank
+                FROM notes m
+                WHERE m.user_id = :userId
+                  AND m.deleted_at IS NULL
+                  AND m.search_vector @@ plainto_tsquery('english', :query)
+                ORDER BY rank DESC, m.id
+                LIMIT :limit OFFSET :offset
+            ) ranked
+            JOIN notes n ON n.id = ranked.id
+            ORDER BY ranked.rank DESC, n.id
+            """,
+            nativeQuery = true
+    )
+    List<NoteSearchProjection> searchNotes(
+            @Param("userId") UUID userId,
+            @Param("query") String query,
+            @Param("limit") int limit,
+            @Param("offset") long offset
+    );
+
+    @Query(
+            value = """
+            SELECT count(*)
             FROM notes n
             WHERE n.user_id = :userId
+              AND n.deleted_at IS NULL
               AND n.search_vector @@ plainto_tsquery('english', :query)
-            ORDER BY rank DESC
             """,
-            countQuery = """
+            nativeQuery = true
+    )
+    long countSearchMatches(
+            @Param("userId") UUID userId,
+            @Param("query") String query
+    );
+
+    /**
+     * Counts matches but stops after :cap rows, bounding the cost for very broad
+     * queries. A result equal to the cap is a lower bound, not an exact total.
+     */
+    @Query(
+            value = """
             SELECT count(*)
+            FROM (
+                SELECT 1
+                FROM notes n
+                WHERE n.user_id = :userId
+                  AND n.deleted_at IS NULL
+                  AND n.search_vector @@ plainto_tsquery('english', :query)
+                LIMIT :cap
+            ) capped
+            """,
+            nativeQuery = true
+    )
+    long countSearchMatchesUpTo(
+            @Param("userId") UUID userId,
+            @Param("query") String query,
+            @Param("cap") int cap
+    );
+
+    /**
+     * Change-feed horizon: the oldest transaction still running when this
+     * statement's snapshot was taken. Every change stamped with an xid below it is
+     * committed or rolled back, so nothing can later appear behind a token that
+     * stops at the horizon.
+     */
+    @Query(
+            value = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS TEXT) AS BIGINT)",
+            nativeQuery = true
+    )
+    long findChangeHorizon();
+
+    /**
+     * Notes (including tombstones) changed after the (changeXid, id) position and
+     * below the horizon, in feed order. A range scan on idx_notes_user_id_change.
+     */
+    @Query(
+            value = """
+            SELECT
+                n.id,
+                n.title,
+                n.content,
+                n.excerpt,
+                n.user_id AS userId,
+                n.created_at AS createdAt,
+                n.updated_at AS updatedAt,
+                n.deleted_at AS deletedAt,
+                CAST(CAST(n.change_xid AS TEXT) AS BIGINT) AS changeXid
             FROM notes n
             WHERE n.user_id = :userId
-              AND n.search_vector @@ plainto_tsquery('english', :query)
+              AND (n.change_xid, n.id) > (CAST(CAST(:afterXid AS TEXT) AS xid8), :afterId)
+              AND n.change_xid < CAST(CAST(:horizon AS TEXT) AS xid8)
+            ORDER BY n.change_xid, n.id
+            LIMIT :limit
             """,
             nativeQuery = true
     )
-    Page<NoteSearchProjection> searchNotes(
+    List<NoteChangeProjection> findChanges(
             @Param("userId") UUID userId,
-            @Param("query") String query,
-            Pageable pageable
+            @Param("afterXid") long afterXid,
+            @Param("afterId") UUID afterId,
+            @Param("horizon") long horizon,
+            @Param("limit") int limit
     );
-}
\ No newline at end of file
+
+    /**
+     * Oldest change-feed position still complete for the user: the highest
+     * change_xid among their purged tombstones, 0 when none were purged.
+     */
+    @Query(
+            value = """
+            SELECT COALESCE((SELECT purged_xid FROM user_note_stats WHERE user_id = :userId), 0)
+            """,
+            nativeQuery = true
+    )
+    long findPurgedXid(@Param("userId") UUID userId);
+
+    /**
+     * Hard-deletes up to {@code batchSize} tombstones deleted before
+     * {@code deletedBefore} in its own short transaction, raising each affected
+     * user's purged_xid to the newest purged change in the same statement. Served by
+     * idx_notes_deleted_at (V9); rows locked by a concurrent write are skipped.
+     * Returns the number of tombstones deleted.
+     */
+    @Transactional
+    @Query(
+            value = """
+            WITH purged AS (
+                DELETE FROM notes
+                WHERE id IN (
+                    SELECT id FROM notes
+                    WHERE deleted_at < :deletedBefore
+                    LIMIT :batchSize
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING user_id, CAST(CAST(change_xid AS TEXT) AS BIGINT) AS change_xid
+            ), horizons AS (
+                UPDATE user_note_stats s
+                SET purged_xid = GREATEST(s.purged_xid, p.max_xid)
+                FROM (SELECT user_id, max(change_xid) AS max_xid FROM purged GROUP BY user_id) p
+                WHERE s.user_id = p.user_id
+            )
+            SELECT CAST(count(*) AS INTEGER) FROM purged
+            """,
+            nativeQuery = true
+    )
+    int purgeTombstones(@Param("deletedBefore") Instant deletedBefore, @Param("batchSize") int batchSize);
+}
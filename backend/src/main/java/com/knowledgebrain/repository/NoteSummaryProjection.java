@@ -0,0 +1,23 @@
+package com.knowledgebrain.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Interface projection for list views: everything but the full content.
+ * The excerpt is maintained by a database trigger (V7).
+ */
+public interface NoteSummaryProjection {
+
+    UUID getId();
+
+    String getTitle();
+
+    String getExcerpt();
+
+    UUID getUserId();
+
+    Instant getCreatedAt();
+
+    Instant getUpdatedAt();
+}
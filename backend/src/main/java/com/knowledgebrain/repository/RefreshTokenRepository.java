@@ -6,7 +6,9 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -15,11 +17,74 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID
 
     Optional<RefreshToken> findByToken(String token);
 
+    /**
+     * Rotation in one round trip: revokes the presented token only if it is still
+     * usable, inserts its successor for the same user and returns it joined with the
+     * user's claims. Empty when the token is unknown, expired or already revoked;
+     * the row lock taken by the UPDATE makes concurrent rotations of one token
+     * mutually exclusive, so at most one of them succeeds.
+     */
+    @Query(
+            value = """
+            WITH revoked AS (
+                UPDATE refresh_tokens
+                SET revoked = true,
+                    revoked_at = now()
+                WHERE token = :token
+                  AND revoked = false
+                  AND expires_at > now()
+                RETURNING user_id
+            ), issued AS (
+                INSERT INTO refresh_tokens (id, user_id, token, expires_at, revoked, created_at)
+                SELECT gen_random_uuid(), user_id, :newToken, :expiresAt, false, now()
+                FROM revoked
+                RETURNING user_id, token, expires_at
+            )
+            SELECT
+                u.id AS userId,
+                u.email AS email,
+                u.display_name AS displayName,
+                i.token AS token,
+                i.expires_at AS expiresAt
+            FROM issued i
+            JOIN users u ON u.id = i.user_id
+            """,
+            nativeQuery = true
+    )
+    Optional<RotatedRefreshTokenProjection> rotate(
+            @Param("token") String token,
+            @Param("newToken") String newToken,
+            @Param("expiresAt") Instant expiresAt
+    );
+
     @Modifying
-    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.user.id = :userId AND rt.revoked = false")
+    @Query("""
+            UPDATE RefreshToken rt
+            SET rt.revoked = true, rt.revokedAt = CURRENT_TIMESTAMP
+            WHERE rt.user.id = :userId AND rt.revoked = false
+            """)
     int revokeAllByUserId(@Param("userId") UUID userId);
 
+    /**
+     * Deletes up to {@code batchSize} purgeable tokens in its own short transaction:
+     * expired ones, and ones revoked before {@code revokedBefore}. Served by
+     * idx_refresh_tokens_expires_at (V11) and idx_refresh_tokens_revoked_at (V12);
+     * rows locked by a concurrent rotation are skipped instead of waited on.
+     */
     @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.expiresAt < CURRENT_TIMESTAMP")
-    int deleteExpiredTokens();
+    @Transactional
+    @Query(
+            value = """
+            DELETE FROM refresh_tokens
+            WHERE id IN (
+                SELECT id FROM refresh_tokens
+                WHERE expires_at < now()
+                   OR (revoked AND revoked_at < :revokedBefore)
+                LIMIT :batchSize
+                FOR UPDATE SKIP LOCKED
+            )
+            """,
+            nativeQuery = true
+    )
+    int purgeBatch(@Param("revokedBefore") Instant revokedBefore, @Param("batchSize") int batchSize);
 }
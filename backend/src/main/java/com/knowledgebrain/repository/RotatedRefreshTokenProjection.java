@@ -0,0 +1,21 @@
+package com.knowledgebrain.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Result of a single-statement refresh token rotation: the newly issued token
+ * together with the owning user's claims, read straight from SQL.
+ */
+public interface RotatedRefreshTokenProjection {
+
+    UUID getUserId();
+
+    String getEmail();
+
+    String getDisplayName();
+
+    String getToken();
+
+    Instant getExpiresAt();
+}
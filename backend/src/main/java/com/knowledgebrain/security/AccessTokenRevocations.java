@@ -0,0 +1,141 @@
+package com.knowledgebrain.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user revocation epochs for access tokens: an access token is rejected when
+ * it was issued at or before its user's epoch. Checking is a map lookup, so
+ * requests stay stateless.
+ * <p>
+ * Epochs live in a Redis sorted set (user id scored by epoch millisecond) and are
+ * pushed to every node over pub/sub, so a revocation applies cluster-wide within
+ * the publish latency; a periodic resync from the set covers missed messages and
+ * node restarts. Entries older than the access-token lifetime can no longer match
+ * a valid token and are pruned, keeping the map as small as the set of users
+ * revoked within one access-token lifetime.
+ * <p>
+ * Access tokens carry a millisecond issue time, so a token minted right after a
+ * revocation (login after logout, refresh after revoke-all) is accepted; only one
+ * issued within the same millisecond as the revocation is rejected too.
+ */
+@Component
+@Slf4j
+public class AccessTokenRevocations implements MessageListener {
+
+    // Scored in milliseconds; renamed from the epoch-second key so the two never mix
+    private static final String KEY = "auth:revocations:ms";
+    private static final String CHANNEL = "kb:auth:revocations:ms";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final Duration accessTokenExpiration;
+    private final Map<UUID, Long> revokedBefore = new ConcurrentHashMap<>();
+    private final Counter rejected;
+
+    public AccessTokenRevocations(StringRedisTemplate redisTemplate,
+                                  RedisMessageListenerContainer listenerContainer,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.jwt.access-token-expiration}") Duration accessTokenExpiration) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.accessTokenExpiration = accessTokenExpiration;
+        this.rejected = Counter.builder("auth.access.tokens.revoked.rejected")
+                .description("Requests rejected because their access token was revoked")
+                .register(meterRegistry);
+        Gauge.builder("auth.access.tokens.revocations", revokedBefore, Map::size)
+                .description("Users with a live access-token revocation epoch on this node")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        resync();
+    }
+
+    /**
+     * Invalidates every access token issued to the user up to now.
+     */
+    public void revoke(UUID userId) {
+        long epochMilli = Instant.now().toEpochMilli();
+        apply(userId, epochMilli);
+        try {
+            redisTemplate.opsForZSet().add(KEY, userId.toString(), epochMilli);
+            redisTemplate.opsForZSet().removeRangeByScore(KEY, Double.NEGATIVE_INFINITY, liveFrom() - 1);
+            redisTemplate.convertAndSend(CHANNEL, userId + ":" + epochMilli);
+        } catch (Exception e) {
+            // Applied locally; peers pick it up on their next resync if the set write succeeded.
+            log.error("Failed to publish access token revocation for user {}: {}", userId, e.getMessage(), e);
+        }
+    }
+
+    public boolean isRevoked(VerifiedToken token) {
+        Long epoch = revokedBefore.get(token.principal().getId());
+        if (epoch != null && token.issuedAt().toEpochMilli() <= epoch) {
+            rejected.increment();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            int separator = body.indexOf(':');
+            apply(UUID.fromString(body.substring(0, separator)), Long.parseLong(body.substring(separator + 1)));
+        } catch (Exception e) {
+            log.error("Failed to apply access token revocation: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.resync-interval-ms:30000}",
+            initialDelayString = "${app.jwt.revocation.resync-interval-ms:30000}")
+    public void resync() {
+        long liveFrom = liveFrom();
+        revokedBefore.values().removeIf(epoch -> epoch < liveFrom);
+        try {
+            Set<ZSetOperations.TypedTuple<String>> live =
+                    redisTemplate.opsForZSet().rangeByScoreWithScores(KEY, liveFrom, Double.POSITIVE_INFINITY);
+            if (live != null) {
+                for (ZSetOperations.TypedTuple<String> entry : live) {
+                    apply(UUID.fromString(entry.getValue()), entry.getScore().longValue());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Access token revocation resync failed: {}", e.getMessage());
+        }
+    }
+
+    private void apply(UUID userId, long epochMilli) {
+        revokedBefore.merge(userId, epochMilli, Math::max);
+    }
+
+    /**
+     * Oldest epoch that can still match an unexpired access token.
+     */
+    private long liveFrom() {
+        return Instant.now().minus(accessTokenExpiration).toEpochMilli();
+    }
+}
@@ -0,0 +1,53 @@
+package com.knowledgebrain.security;
+
+import com.knowledgebrain.entity.RefreshToken;
+import com.knowledgebrain.repository.RefreshTokenRepository;
+import com.knowledgebrain.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Refresh tokens in the refresh_tokens table. Callers provide the transaction.
+ */
+@Component
+@ConditionalOnProperty(name = "app.jwt.refresh-token-store", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JpaRefreshTokenStore implements RefreshTokenStore {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+
+    @Override
+    public void issue(RefreshTokenOwner owner, String token, Instant expiresAt) {
+        refreshTokenRepository.save(RefreshToken.builder()
+                .user(userRepository.getReferenceById(owner.userId()))
+                .token(token)
+                .expiresAt(expiresAt)
+                .revoked(false)
+                .build());
+    }
+
+    @Override
+    public Optional<RefreshTokenOwner> rotate(String token, String newToken, Instant expiresAt) {
+        return refreshTokenRepository.rotate(token, newToken, expiresAt)
+                .map(rotated -> new RefreshTokenOwner(
+                        rotated.getUserId(), rotated.getEmail(), rotated.getDisplayName()));
+    }
+
+    @Override
+    public Optional<UUID> findRevokedOwner(String token) {
+        return refreshTokenRepository.findByToken(token)
+                .filter(RefreshToken::isRevoked)
+                .map(refreshToken -> refreshToken.getUser().getId());
+    }
+
+    @Override
+    public int revokeAll(UUID userId) {
+        return refreshTokenRepository.revokeAllByUserId(userId);
+    }
+}
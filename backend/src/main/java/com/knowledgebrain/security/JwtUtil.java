@@ -3,6 +3,7 @@ package com.knowledgebrain.security;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
@@ -16,6 +17,7 @@ import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
+import java.util.Optional;
 import java.util.UUID;
 
 @Component
@@ -23,6 +25,11 @@ public class JwtUtil {
 
     private static final Logger log = LoggerFactory.getLogger(JwtUtil.class);
 
+    private static final String EMAIL_CLAIM = "email";
+    private static final String DISPLAY_NAME_CLAIM = "name";
+    // iat has second precision; revocation epochs need the exact issue time
+    private static final String ISSUED_AT_MILLIS_CLAIM = "iat_ms";
+
     @Value("${app.jwt.secret}")
     private String secret;
 
@@ -34,17 +41,29 @@ public class JwtUtil {
 
     private SecretKey signingKey;
 
+    // Immutable and thread-safe; building it per call re-resolves the key and algorithms.
+    private JwtParser parser;
+
     @PostConstruct
     public void init() {
         this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
 
-    public String generateAccessToken(UUID userId, String email) {
+    /**
+     * Issues an access token carrying everything {@link #parsePrincipal} needs,
+     * so authenticated requests never have to look the user up.
+     */
+    public String generateAccessToken(UUID userId, String email, String displayName) {
         Instant now = Instant.now();
         return Jwts.builder()
                 .subject(userId.toString())
-                .claim("email", email)
+                .claim(EMAIL_CLAIM, email)
+                .claim(DISPLAY_NAME_CLAIM, displayName)
                 .issuedAt(Date.from(now))
+                .claim(ISSUED_AT_MILLIS_CLAIM, now.toEpochMilli())
                 .expiration(Date.from(now.plus(accessTokenExpiration)))
                 .signWith(signingKey)
                 .compact();
@@ -65,7 +84,43 @@ public class JwtUtil {
 
     public String getEmailFromToken(String token) {
         Claims claims = parseToken(token);
-        return claims.get("email", String.class);
+        return claims.get(EMAIL_CLAIM, String.class);
+    }
+
+    /**
+     * Verifies the token once and builds the principal straight from its claims.
+     * Empty when the token is expired, tampered with or malformed.
+     */
+    public Optional<UserPrincipal> parsePrincipal(String token) {
+        return verify(token).map(VerifiedToken::principal);
+    }
+
+    /**
+     * Like {@link #parsePrincipal}, but also returns the token's validity window
+     * for callers that cache or compare against it.
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        try {
+            Claims claims = parseToken(token);
+            if (claims.getSubject() == null || claims.getIssuedAt() == null || claims.getExpiration() == null) {
+                log.warn("Invalid JWT token: missing sub, iat or exp");
+                return Optional.empty();
+            }
+            UserPrincipal principal = new UserPrincipal(
+                    UUID.fromString(claims.getSubject()),
+                    claims.get(EMAIL_CLAIM, String.class),
+                    claims.get(DISPLAY_NAME_CLAIM, String.class));
+            Long issuedAtMillis = claims.get(ISSUED_AT_MILLIS_CLAIM, Long.class);
+            Instant issuedAt = issuedAtMillis != null
+                    ? Instant.ofEpochMilli(issuedAtMillis)
+                    : claims.getIssuedAt().toInstant();
+            return Optional.of(new VerifiedToken(principal, issuedAt, claims.getExpiration().toInstant()));
+        } catch (ExpiredJwtException e) {
+            log.debug("JWT token expired: {}", e.getMessage());
+        } catch (JwtException | IllegalArgumentException e) {
+            log.warn("Invalid JWT token: {}", e.getMessage());
+        }
+        return Optional.empty();
     }
 
     public boolean validateToken(String token) {
@@ -81,10 +136,6 @@ public class JwtUtil {
     }
 
     private Claims parseToken(String token) {
-        return Jwts.parser()
-                .verifyWith(signingKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 }
@@ -0,0 +1,140 @@
+package com.knowledgebrain.security;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Refresh tokens in Redis, keyed by the SHA-256 of the token value so a leaked
+ * dump cannot be replayed. Each token is a hash (owner claims plus a revoked flag)
+ * expiring at the token's own expiry; a per-user set of token hashes backs
+ * {@link #revokeAll}. The set outlives its newest token and stale members are
+ * pruned whenever it is walked. Unsalted SHA-256 is sufficient because token
+ * values are random and high-entropy.
+ * <p>
+ * Rotation builds the owner's set key inside the script, so the keys must live on
+ * one Redis node (no cluster mode).
+ */
+@Component
+@ConditionalOnProperty(name = "app.jwt.refresh-token-store", havingValue = "redis")
+public class RedisRefreshTokenStore implements RefreshTokenStore {
+
+    private static final String TOKEN_PREFIX = "auth:refresh:";
+    private static final String USER_PREFIX = "auth:refresh:user:";
+
+    private static final RedisScript<Long> ISSUE = new DefaultRedisScript<>("""
+            redis.call('HSET', KEYS[1], 'userId', ARGV[1], 'email', ARGV[2], 'displayName', ARGV[3], 'revoked', '0')
+            redis.call('PEXPIREAT', KEYS[1], ARGV[4])
+            redis.call('SADD', KEYS[2], ARGV[5])
+            if redis.call('PTTL', KEYS[2]) < tonumber(ARGV[6]) then
+                redis.call('PEXPIRE', KEYS[2], ARGV[6])
+            end
+            return 1
+            """, Long.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ROTATE = new DefaultRedisScript<>("""
+            local owner = redis.call('HMGET', KEYS[1], 'userId', 'email', 'displayName', 'revoked')
+            if not owner[1] or owner[4] ~= '0' then
+                return false
+            end
+            redis.call('HSET', KEYS[1], 'revoked', '1')
+            redis.call('HSET', KEYS[2], 'userId', owner[1], 'email', owner[2], 'displayName', owner[3], 'revoked', '0')
+            redis.call('PEXPIREAT', KEYS[2], ARGV[1])
+            local userKey = ARGV[2] .. owner[1]
+            redis.call('SADD', userKey, ARGV[3])
+            if redis.call('PTTL', userKey) < tonumber(ARGV[4]) then
+                redis.call('PEXPIRE', userKey, ARGV[4])
+            end
+            return {owner[1], owner[2], owner[3]}
+            """, List.class);
+
+    private static final RedisScript<Long> REVOKE_ALL = new DefaultRedisScript<>("""
+            local revoked = 0
+            for _, member in ipairs(redis.call('SMEMBERS', KEYS[1])) do
+                local key = ARGV[1] .. member
+                local state = redis.call('HGET', key, 'revoked')
+                if state == '0' then
+                    redis.call('HSET', key, 'revoked', '1')
+                    revoked = revoked + 1
+                elseif not state then
+                    redis.call('SREM', KEYS[1], member)
+                end
+            end
+            return revoked
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisRefreshTokenStore(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public void issue(RefreshTokenOwner owner, String token, Instant expiresAt) {
+        String digest = digest(token);
+        redisTemplate.execute(ISSUE, List.of(TOKEN_PREFIX + digest, USER_PREFIX + owner.userId()),
+                owner.userId().toString(),
+                owner.email(),
+                owner.displayName(),
+                String.valueOf(expiresAt.toEpochMilli()),
+                digest,
+                String.valueOf(millisUntil(expiresAt)));
+    }
+
+    @Override
+    public Optional<RefreshTokenOwner> rotate(String token, String newToken, Instant expiresAt) {
+        String newDigest = digest(newToken);
+        List<?> owner = redisTemplate.execute(ROTATE,
+                List.of(TOKEN_PREFIX + digest(token), TOKEN_PREFIX + newDigest),
+                String.valueOf(expiresAt.toEpochMilli()),
+                USER_PREFIX,
+                newDigest,
+                String.valueOf(millisUntil(expiresAt)));
+        if (owner == null || owner.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new RefreshTokenOwner(
+                UUID.fromString((String) owner.get(0)), (String) owner.get(1), (String) owner.get(2)));
+    }
+
+    @Override
+    public Optional<UUID> findRevokedOwner(String token) {
+        List<Object> fields = redisTemplate.opsForHash().multiGet(TOKEN_PREFIX + digest(token),
+                List.of("userId", "revoked"));
+        if (fields.get(0) == null || !"1".equals(fields.get(1))) {
+            return Optional.empty();
+        }
+        return Optional.of(UUID.fromString((String) fields.get(0)));
+    }
+
+    @Override
+    public int revokeAll(UUID userId) {
+        Long revoked = redisTemplate.execute(REVOKE_ALL, List.of(USER_PREFIX + userId), TOKEN_PREFIX);
+        return revoked != null ? revoked.intValue() : 0;
+    }
+
+    static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static long millisUntil(Instant instant) {
+        return Math.max(1, instant.toEpochMilli() - System.currentTimeMillis());
+    }
+}
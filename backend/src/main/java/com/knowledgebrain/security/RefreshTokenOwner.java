@@ -0,0 +1,10 @@
+package com.knowledgebrain.security;
+
+import java.util.UUID;
+
+/**
+ * The user a refresh token belongs to, with the claims needed to mint an access
+ * token without loading the user.
+ */
+public record RefreshTokenOwner(UUID userId, String email, String displayName) {
+}
@@ -0,0 +1,35 @@
+package com.knowledgebrain.security;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Persistence for refresh tokens, selected by {@code app.jwt.refresh-token-store}:
+ * {@code jpa} keeps them in the refresh_tokens table, {@code redis} keeps only
+ * hashes of the token values in Redis with native TTL expiry.
+ * <p>
+ * A revoked token stays known until it expires so that replaying it can be
+ * detected and answered by revoking the whole family.
+ */
+public interface RefreshTokenStore {
+
+    void issue(RefreshTokenOwner owner, String token, Instant expiresAt);
+
+    /**
+     * Atomically revokes {@code token} if it is still usable and issues
+     * {@code newToken} for the same owner. Empty when the token is unknown,
+     * expired or already revoked.
+     */
+    Optional<RefreshTokenOwner> rotate(String token, String newToken, Instant expiresAt);
+
+    /**
+     * The owner of {@code token} if it is known and has been revoked, i.e. a replay.
+     */
+    Optional<UUID> findRevokedOwner(String token);
+
+    /**
+     * Revokes every usable token of the user and returns how many were revoked.
+     */
+    int revokeAll(UUID userId);
+}
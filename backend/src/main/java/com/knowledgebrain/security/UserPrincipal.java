@@ -25,6 +25,17 @@ public class UserPrincipal implements UserDetails {
         this.displayName = user.getDisplayName();
     }
 
+    /**
+     * Principal rebuilt from verified access-token claims. Carries no password hash;
+     * it only ever backs an already-authenticated request.
+     */
+    public UserPrincipal(UUID id, String email, String displayName) {
+        this.id = id;
+        this.email = email;
+        this.password = null;
+        this.displayName = displayName;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(new SimpleGrantedAuthority("ROLE_USER"));
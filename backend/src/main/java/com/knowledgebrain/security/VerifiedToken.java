@@ -0,0 +1,10 @@
+package com.knowledgebrain.security;
+
+import java.time.Instant;
+
+/**
+ * An access token whose signature and expiry have been checked, with the
+ * principal built from its claims.
+ */
+public record VerifiedToken(UserPrincipal principal, Instant issuedAt, Instant expiresAt) {
+}
@@ -3,69 +3,94 @@ package com.knowledgebrain.service;
 import com.knowledgebrain.dto.auth.AuthResponse;
 import com.knowledgebrain.dto.auth.LoginRequest;
 import com.knowledgebrain.dto.auth.RegisterRequest;
-import com.knowledgebrain.entity.RefreshToken;
 import com.knowledgebrain.entity.User;
-import com.knowledgebrain.repository.RefreshTokenRepository;
 import com.knowledgebrain.repository.UserRepository;
+import com.knowledgebrain.security.AccessTokenRevocations;
 import com.knowledgebrain.security.JwtUtil;
-import lombok.RequiredArgsConstructor;
+import com.knowledgebrain.security.PasswordHashingService;
+import com.knowledgebrain.security.RefreshTokenOwner;
+import com.knowledgebrain.security.RefreshTokenStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Service
-@RequiredArgsConstructor
 public class AuthService {
 
     private static final Logger log = LoggerFactory.getLogger(AuthService.class);
 
     private final UserRepository userRepository;
-    private final RefreshTokenRepository refreshTokenRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final RefreshTokenStore refreshTokenStore;
+    private final AccessTokenRevocations accessTokenRevocations;
+    private final PasswordHashingService passwordHashingService;
     private final JwtUtil jwtUtil;
+    private final Executor blockingExecutor;
+
+    public AuthService(UserRepository userRepository,
+                       RefreshTokenStore refreshTokenStore,
+                       AccessTokenRevocations accessTokenRevocations,
+                       PasswordHashingService passwordHashingService,
+                       JwtUtil jwtUtil,
+                       @Qualifier("blockingExecutor") Executor blockingExecutor) {
+        this.userRepository = userRepository;
+        this.refreshTokenStore = refreshTokenStore;
+        this.accessTokenRevocations = accessTokenRevocations;
+        this.passwordHashingService = passwordHashingService;
+        this.jwtUtil = jwtUtil;
+        this.blockingExecutor = blockingExecutor;
+    }
 
-    @Transactional
-    public AuthResponse register(RegisterRequest request) {
+    /**
+     * Hashes the password on the bounded hashing pool, then saves the user on the
+     * blocking executor so hashing threads never wait on the database.
+     * Deliberately not @Transactional: no connection is held while waiting for the hash.
+     */
+    public CompletableFuture<AuthResponse> register(RegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new IllegalArgumentException("Email already registered");
         }
 
-        User user = User.builder()
-                .email(request.getEmail().toLowerCase().trim())
-                .passwordHash(passwordEncoder.encode(request.getPassword()))
-                .displayName(request.getDisplayName().trim())
-                .build();
-
-        user = userRepository.save(user);
-        log.info("User registered: {}", user.getEmail());
+        return passwordHashingService.encode(request.getPassword()).thenApplyAsync(passwordHash -> {
+            User user = User.builder()
+                    .email(request.getEmail().toLowerCase().trim())
+                    .passwordHash(passwordHash)
+                    .displayName(request.getDisplayName().trim())
+                    .build();
 
-        String accessToken = jwtUtil.generateAccessToken(user.getId(), user.getEmail());
+            user = userRepository.save(user);
+            log.info("User registered: {}", user.getEmail());
 
-        return AuthResponse.builder()
-                .userId(user.getId())
-                .email(user.getEmail())
-                .displayName(user.getDisplayName())
-                .accessToken(accessToken)
-                .build();
+            return toAuthResponse(user);
+        }, blockingExecutor);
     }
 
-    @Transactional
-    public AuthResponse login(LoginRequest request) {
+    /**
+     * Verifies the password on the bounded hashing pool. Fails fast with
+     * ServiceOverloadedException when the pool is saturated.
+     */
+    public CompletableFuture<AuthResponse> login(LoginRequest request) {
         User user = userRepository.findByEmail(request.getEmail().toLowerCase().trim())
                 .orElseThrow(() -> new IllegalArgumentException("Invalid email or password"));
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
-            throw new IllegalArgumentException("Invalid email or password");
-        }
-
-        String accessToken = jwtUtil.generateAccessToken(user.getId(), user.getEmail());
+        return passwordHashingService.matches(request.getPassword(), user.getPasswordHash()).thenApply(matches -> {
+            if (!matches) {
+                throw new IllegalArgumentException("Invalid email or password");
+            }
+            log.info("User logged in: {}", user.getEmail());
+            return toAuthResponse(user);
+        });
+    }
 
-        log.info("User logged in: {}", user.getEmail());
+    private AuthResponse toAuthResponse(User user) {
+        String accessToken = jwtUtil.generateAccessToken(user.getId(), user.getEmail(), user.getDisplayName());
 
         return AuthResponse.builder()
                 .userId(user.getId())
@@ -76,63 +101,66 @@ public class AuthService {
     }
 
     @Transactional
-    public RefreshToken createRefreshToken(UUID userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
-        RefreshToken refreshToken = RefreshToken.builder()
-                .user(user)
-                .token(jwtUtil.generateRefreshTokenValue())
-                .expiresAt(Instant.now().plus(jwtUtil.getRefreshTokenExpiration()))
-                .revoked(false)
-                .build();
-
-        return refreshTokenRepository.save(refreshToken);
+    public String createRefreshToken(AuthResponse authResponse) {
+        String token = jwtUtil.generateRefreshTokenValue();
+        refreshTokenStore.issue(
+                new RefreshTokenOwner(authResponse.getUserId(), authResponse.getEmail(), authResponse.getDisplayName()),
+                token,
+                Instant.now().plus(jwtUtil.getRefreshTokenExpiration()));
+        return token;
     }
 
-    @Transactional
-    public AuthResponse refreshAccessToken(String refreshTokenValue) {
-        RefreshToken refreshToken = refreshTokenRepository.findByToken(refreshTokenValue)
-                .orElseThrow(() -> new IllegalArgumentException("Invalid refresh token"));
-
-        if (!refreshToken.isUsable()) {
-            // If someone tries to use a revoked token, revoke ALL tokens for that user (token theft detection)
-            if (refreshToken.isRevoked()) {
-                refreshTokenRepository.revokeAllByUserId(refreshToken.getUser().getId());
-                log.warn("Reuse of revoked refresh token detected for user: {}. All tokens revoked.",
-                        refreshToken.getUser().getEmail());
-            }
-            throw new IllegalArgumentException("Refresh token expired or revoked");
-        }
-
-        // Rotate: revoke the old token, create a new one
-        refreshToken.setRevoked(true);
-        refreshTokenRepository.save(refreshToken);
-
-        User user = refreshToken.getUser();
-        String newAccessToken = jwtUtil.generateAccessToken(user.getId(), user.getEmail());
-
-        log.debug("Access token refreshed for user: {}", user.getEmail());
+    /**
+     * A successful rotation: the new access token for the response body and the
+     * successor refresh token for the cookie.
+     */
+    public record RefreshedSession(AuthResponse auth, String refreshToken) {
+    }
 
-        return AuthResponse.builder()
-                .userId(user.getId())
-                .email(user.getEmail())
-                .displayName(user.getDisplayName())
-                .accessToken(newAccessToken)
+    /**
+     * Revokes the presented refresh token and issues its successor in one atomic
+     * store operation. Only when that fails is the token looked up again, to tell a
+     * replayed (already revoked) token apart from an unknown or expired one;
+     * replay revokes every token of the user. Not rolled back on the rejection so
+     * that the revocation sticks.
+     */
+    @Transactional(noRollbackFor = IllegalArgumentException.class)
+    public RefreshedSession refresh(String refreshTokenValue) {
+        String newRefreshToken = jwtUtil.generateRefreshTokenValue();
+        RefreshTokenOwner owner = refreshTokenStore.rotate(
+                        refreshTokenValue,
+                        newRefreshToken,
+                        Instant.now().plus(jwtUtil.getRefreshTokenExpiration()))
+                .orElseThrow(() -> rejectRefreshToken(refreshTokenValue));
+
+        String accessToken = jwtUtil.generateAccessToken(owner.userId(), owner.email(), owner.displayName());
+
+        log.debug("Access token refreshed for user: {}", owner.userId());
+
+        AuthResponse auth = AuthResponse.builder()
+                .userId(owner.userId())
+                .email(owner.email())
+                .displayName(owner.displayName())
+                .accessToken(accessToken)
                 .build();
+        return new RefreshedSession(auth, newRefreshToken);
     }
 
-    @Transactional
-    public RefreshToken rotateRefreshToken(String oldRefreshTokenValue) {
-        RefreshToken oldToken = refreshTokenRepository.findByToken(oldRefreshTokenValue)
-                .orElseThrow(() -> new IllegalArgumentException("Invalid refresh token"));
-
-        return createRefreshToken(oldToken.getUser().getId());
+    private IllegalArgumentException rejectRefreshToken(String refreshTokenValue) {
+        // If someone tries to use a revoked token, revoke ALL tokens for that user (token theft detection)
+        Optional<UUID> replayedBy = refreshTokenStore.findRevokedOwner(refreshTokenValue);
+        if (replayedBy.isPresent()) {
+            refreshTokenStore.revokeAll(replayedBy.get());
+            accessTokenRevocations.revoke(replayedBy.get());
+            log.warn("Reuse of revoked refresh token detected for user: {}. All tokens revoked.", replayedBy.get());
+        }
+        return new IllegalArgumentException("Refresh token expired or revoked");
     }
 
     @Transactional
     public void logout(UUID userId) {
-        int revoked = refreshTokenRepository.revokeAllByUserId(userId);
+        int revoked = refreshTokenStore.revokeAll(userId);
+        accessTokenRevocations.revoke(userId);
         log.info("Logged out user: {}, revoked {} refresh tokens", userId, revoked);
     }
 }
@@ -0,0 +1,172 @@
+package com.knowledgebrain.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind buffer for autosave updates, held in Redis so it survives an
+ * application restart and is visible to every node (read-your-writes regardless of
+ * which node serves the read). Each note has one hash merging all pending field
+ * values plus a version that increments on every stage; a note id stays in the
+ * dirty set until its buffer has been written to PostgreSQL.
+ * <p>
+ * Flushing reads the buffer, writes it, then acknowledges the version it read:
+ * the hash is only deleted if nothing was staged in between, so no update is lost
+ * and a failed flush simply retries.
+ * <p>
+ * Each buffer also records the {@code updated_at} of the row it was staged on. A
+ * flush only writes while the row is still at that base, so an explicit save that
+ * lands between the flusher's read and its write is never overwritten by older
+ * autosaved content. Whenever the row moves on while newer changes are staged, the
+ * acknowledgement rebases the buffer onto the new {@code updated_at}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AutosaveBuffer {
+
+    private static final String KEY_PREFIX = "notes:autosave:";
+    private static final String DIRTY_KEY = "notes:autosave:dirty";
+    private static final String LOCK_PREFIX = "notes:autosave:lock:";
+
+    // Safety net only: buffers are normally flushed within seconds.
+    private static final Duration BUFFER_TTL = Duration.ofDays(1);
+
+    private static final RedisScript<Long> STAGE = new DefaultRedisScript<>("""
+            redis.call('HSET', KEYS[1], 'userId', ARGV[1], 'stagedAt', ARGV[2])
+            if ARGV[3] == '1' then redis.call('HSET', KEYS[1], 'title', ARGV[4]) end
+            if ARGV[5] == '1' then redis.call('HSET', KEYS[1], 'content', ARGV[6]) end
+            redis.call('HSETNX', KEYS[1], 'baseUpdatedAt', ARGV[9])
+            local version = redis.call('HINCRBY', KEYS[1], 'version', 1)
+            redis.call('EXPIRE', KEYS[1], ARGV[7])
+            redis.call('SADD', KEYS[2], ARGV[8])
+            return version
+            """, Long.class);
+
+    private static final RedisScript<Long> ACK = new DefaultRedisScript<>("""
+            if redis.call('HGET', KEYS[1], 'version') == ARGV[1] then
+                redis.call('DEL', KEYS[1])
+                redis.call('SREM', KEYS[2], ARGV[2])
+                return 1
+            end
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                redis.call('SREM', KEYS[2], ARGV[2])
+            elseif ARGV[3] ~= '' then
+                redis.call('HSET', KEYS[1], 'baseUpdatedAt', ARGV[3])
+                redis.call('HINCRBY', KEYS[1], 'version', 1)
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * A note's pending changes. A null title or content means that field has not
+     * been changed since the last flush. {@code baseUpdatedAt} is the row version the
+     * changes apply to (null for buffers staged before it was recorded).
+     */
+    public record Buffered(UUID userId, String title, String content, Instant baseUpdatedAt,
+                           Instant stagedAt, long version) {
+    }
+
+    /**
+     * Merges the given fields into the note's buffer and returns the staging time.
+     * {@code baseUpdatedAt} is the row's current {@code updated_at}; it is only recorded
+     * when this stage opens a new buffer.
+     */
+    public Instant stage(UUID userId, UUID noteId, Instant baseUpdatedAt, String title, String content) {
+        Instant stagedAt = Instant.now();
+        redisTemplate.execute(STAGE, List.of(key(noteId), DIRTY_KEY),
+                userId.toString(),
+                stagedAt.toString(),
+                title != null ? "1" : "0", title != null ? title : "",
+                content != null ? "1" : "0", content != null ? content : "",
+                String.valueOf(BUFFER_TTL.toSeconds()),
+                noteId.toString(),
+                baseUpdatedAt.toString());
+        return stagedAt;
+    }
+
+    public Optional<Buffered> find(UUID noteId) {
+        Map<Object, Object> hash = redisTemplate.opsForHash().entries(key(noteId));
+        if (hash.isEmpty()) {
+            return Optional.empty();
+        }
+        String baseUpdatedAt = (String) hash.get("baseUpdatedAt");
+        return Optional.of(new Buffered(
+                UUID.fromString((String) hash.get("userId")),
+                (String) hash.get("title"),
+                (String) hash.get("content"),
+                baseUpdatedAt != null ? Instant.parse(baseUpdatedAt) : null,
+                Instant.parse((String) hash.get("stagedAt")),
+                Long.parseLong((String) hash.get("version"))));
+    }
+
+    /**
+     * Buffered changes visible to {@code userId}; another user's buffer is never exposed.
+     */
+    public Optional<Buffered> find(UUID userId, UUID noteId) {
+        return find(noteId).filter(buffered -> buffered.userId().equals(userId));
+    }
+
+    /**
+     * Drops the buffer once {@code version} has been persisted or superseded. Returns
+     * false when newer changes were staged meanwhile; they stay dirty for the next
+     * flush, rebased onto {@code rowUpdatedAt} (the row's {@code updated_at} after the
+     * write) when it is given.
+     */
+    public boolean acknowledge(UUID noteId, long version, Instant rowUpdatedAt) {
+        Long deleted = redisTemplate.execute(ACK, List.of(key(noteId), DIRTY_KEY),
+                String.valueOf(version), noteId.toString(),
+                rowUpdatedAt != null ? rowUpdatedAt.toString() : "");
+        return deleted != null && deleted == 1L;
+    }
+
+    /**
+     * Discards pending changes, e.g. when an explicit save or a delete supersedes them.
+     */
+    public void discard(Collection<UUID> noteIds) {
+        if (noteIds.isEmpty()) {
+            return;
+        }
+        redisTemplate.delete(noteIds.stream().map(AutosaveBuffer::key).toList());
+        redisTemplate.opsForSet().remove(DIRTY_KEY, noteIds.stream().map(UUID::toString).toArray());
+    }
+
+    public Set<UUID> dirtyNotes() {
+        Set<String> members = redisTemplate.opsForSet().members(DIRTY_KEY);
+        if (members == null) {
+            return Set.of();
+        }
+        return members.stream().map(UUID::fromString).collect(Collectors.toSet());
+    }
+
+    /**
+     * Short per-note lease so only one node flushes a given note at a time.
+     */
+    public boolean tryLockFlush(UUID noteId, Duration lease) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(LOCK_PREFIX + noteId, "1", lease));
+    }
+
+    public void unlockFlush(UUID noteId) {
+        redisTemplate.delete(LOCK_PREFIX + noteId);
+    }
+
+    private static String key(UUID noteId) {
+        return KEY_PREFIX + noteId;
+    }
+}
@@ -0,0 +1,75 @@
+package com.knowledgebrain.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Periodically writes buffered autosave changes to PostgreSQL
+ * ({@code app.autosave.flush-interval-ms}). Runs on every node; a short per-note
+ * lease keeps two nodes from writing the same note in the same round.
+ */
+@Component
+@Slf4j
+public class AutosaveFlusher {
+
+    private static final Duration FLUSH_LEASE = Duration.ofSeconds(30);
+
+    private final AutosaveBuffer autosaveBuffer;
+    private final NoteService noteService;
+    private final Counter flushed;
+    private final Counter failures;
+    private final Counter conflicts;
+
+    public AutosaveFlusher(AutosaveBuffer autosaveBuffer, NoteService noteService, MeterRegistry meterRegistry) {
+        this.autosaveBuffer = autosaveBuffer;
+        this.noteService = noteService;
+        this.flushed = Counter.builder("notes.autosave.flushed")
+                .description("Buffered autosaves written to the database")
+                .register(meterRegistry);
+        this.failures = Counter.builder("notes.autosave.flush.failures")
+                .description("Autosave flushes that failed and will be retried")
+                .register(meterRegistry);
+        this.conflicts = Counter.builder("notes.autosave.flush.conflicts")
+                .description("Autosaves dropped because the note was saved after they were staged")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.autosave.flush-interval-ms:2000}")
+    public void flushDirty() {
+        for (UUID noteId : autosaveBuffer.dirtyNotes()) {
+            if (!autosaveBuffer.tryLockFlush(noteId, FLUSH_LEASE)) {
+                continue;
+            }
+            try {
+                flush(noteId);
+            } catch (Exception e) {
+                failures.increment();
+                log.error("Failed to flush autosave for note {}: {}", noteId, e.getMessage(), e);
+            } finally {
+                autosaveBuffer.unlockFlush(noteId);
+            }
+        }
+    }
+
+    private void flush(UUID noteId) {
+        Optional<AutosaveBuffer.Buffered> buffered = autosaveBuffer.find(noteId);
+        if (buffered.isEmpty()) {
+            // Expired or already flushed elsewhere; clears the stale dirty entry
+            autosaveBuffer.acknowledge(noteId, -1, null);
+            return;
+        }
+        // Acknowledges the buffer itself once its transaction has committed
+        if (noteService.flushAutosave(noteId, buffered.get())) {
+            flushed.increment();
+        } else {
+            conflicts.increment();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.knowledgebrain.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntSupplier;
+
+/**
+ * Shared driver for the purge jobs: repeats a batch delete, each batch committing
+ * on its own, until one comes back short or the time budget is spent, so no run
+ * holds locks for long and the rest is picked up on the next interval. A Redis
+ * lease, released by compare-and-delete, makes sure only one node purges at a time.
+ * <p>
+ * Records {@code <metricPrefix>.purged} (rows) and {@code <metricPrefix>.purge}
+ * (run duration).
+ */
+@Slf4j
+final class LeasedBatchPurge {
+
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String lockKey;
+    private final String subject;
+    private final int batchSize;
+    private final Duration timeBudget;
+    private final Counter purged;
+    private final Timer runs;
+
+    /**
+     * @param subject what is purged, in plural, for logs and metric descriptions
+     */
+    LeasedBatchPurge(StringRedisTemplate redisTemplate,
+                     MeterRegistry meterRegistry,
+                     String lockKey,
+                     String metricPrefix,
+                     String subject,
+                     int batchSize,
+                     Duration timeBudget) {
+        this.redisTemplate = redisTemplate;
+        this.lockKey = lockKey;
+        this.subject = subject;
+        this.batchSize = batchSize;
+        this.timeBudget = timeBudget;
+        this.purged = Counter.builder(metricPrefix + ".purged")
+                .description(capitalize(subject) + " deleted by the purge job")
+                .register(meterRegistry);
+        this.runs = Timer.builder(metricPrefix + ".purge")
+                .description("Duration of " + subject + " purge runs")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code batch}, which deletes up to the configured batch size and returns
+     * the count, within the time budget. Returns without purging when another node
+     * holds the lease or Redis is unavailable.
+     */
+    void run(IntSupplier batch) {
+        String owner = UUID.randomUUID().toString();
+        try {
+            // The lease outlives the budget by a margin for the batch in flight when it runs out
+            Duration lease = timeBudget.plusMinutes(1);
+            if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, owner, lease))) {
+                return;
+            }
+        } catch (Exception e) {
+            log.warn("Skipping {} purge, lock unavailable: {}", subject, e.getMessage());
+            return;
+        }
+
+        Timer.Sample sample = Timer.start();
+        try {
+            int deleted = purgeWithinBudget(batch);
+            if (deleted > 0) {
+                log.info("Purged {} {}", deleted, subject);
+            }
+        } catch (Exception e) {
+            log.error("Purge of {} failed: {}", subject, e.getMessage(), e);
+        } finally {
+            sample.stop(runs);
+            redisTemplate.execute(RELEASE, List.of(lockKey), owner);
+        }
+    }
+
+    private int purgeWithinBudget(IntSupplier batch) {
+        long deadline = System.nanoTime() + timeBudget.toNanos();
+
+        int total = 0;
+        int deleted;
+        do {
+            deleted = batch.getAsInt();
+            purged.increment(deleted);
+            total += deleted;
+        } while (deleted == batchSize && System.nanoTime() < deadline);
+        return total;
+    }
+
+    private static String capitalize(String text) {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+}
@@ -0,0 +1,107 @@
+package com.knowledgebrain.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.knowledgebrain.cache.CacheInvalidation;
+import com.knowledgebrain.cache.CacheInvalidationBus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Per-user generation counters for the "notes" and "noteSearch" caches.
+ * Cache keys embed the user's current generation, so bumping it after a write
+ * makes that user's cached pages and searches unreachable without touching
+ * any other tenant's entries. Orphaned entries simply age out via their TTL.
+ * <p>
+ * Generations are memoised in-process and dropped through the
+ * {@link CacheInvalidationBus}, so an L1 cache hit needs no Redis round trip.
+ */
+@Component("noteCacheGenerations")
+@Slf4j
+public class NoteCacheGenerations {
+
+    private static final String KEY_PREFIX = "notes:gen:";
+
+    // Must outlive the longest cache TTL so a generation never resets while entries keyed by it are still live.
+    private static final Duration GENERATION_TTL = Duration.ofDays(1);
+
+    private final StringRedisTemplate redisTemplate;
+    private final CacheInvalidationBus invalidationBus;
+    private final Cache<UUID, Long> localGenerations;
+    private final Counter invalidations;
+
+    public NoteCacheGenerations(StringRedisTemplate redisTemplate,
+                                CacheInvalidationBus invalidationBus,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.cache.local.maximum-size:10000}") long localMaximumSize,
+                                @Value("${app.cache.local.ttl:30s}") Duration localTtl) {
+        this.redisTemplate = redisTemplate;
+        this.invalidationBus = invalidationBus;
+        this.localGenerations = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(localTtl)
+                .build();
+        this.invalidations = Counter.builder("notes.cache.invalidations")
+                .description("Per-user invalidations of the notes and noteSearch caches")
+                .register(meterRegistry);
+        invalidationBus.subscribe(this::onInvalidation);
+    }
+
+    public long current(UUID userId) {
+        return localGenerations.get(userId, this::fetch);
+    }
+
+    /**
+     * Invalidates the user's cached entries. Inside a transaction the bump is deferred
+     * until after commit, so a concurrent read cannot re-cache pre-commit state under
+     * the new generation.
+     */
+    public void invalidate(UUID userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump(userId);
+                }
+            });
+        } else {
+            bump(userId);
+        }
+    }
+
+    private long fetch(UUID userId) {
+        String value = redisTemplate.opsForValue().get(key(userId));
+        return value != null ? Long.parseLong(value) : 0L;
+    }
+
+    private void bump(UUID userId) {
+        try {
+            String key = key(userId);
+            redisTemplate.opsForValue().increment(key);
+            redisTemplate.expire(key, GENERATION_TTL);
+            invalidations.increment();
+        } catch (Exception e) {
+            log.error("Failed to invalidate note caches for user {}: {}", userId, e.getMessage(), e);
+        }
+        invalidationBus.publish(CacheInvalidation.Type.USER, null, userId.toString());
+    }
+
+    private void onInvalidation(CacheInvalidation invalidation) {
+        if (invalidation.type() == CacheInvalidation.Type.USER) {
+            localGenerations.invalidate(UUID.fromString(invalidation.key()));
+        }
+    }
+
+    private static String key(UUID userId) {
+        return KEY_PREFIX + userId;
+    }
+}
@@ -0,0 +1,26 @@
+package com.knowledgebrain.service;
+
+import com.knowledgebrain.entity.Note;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Keyset position in the (updated_at DESC, id DESC) ordering of a user's notes,
+ * exchanged as an {@link OpaqueToken}.
+ */
+record NoteCursor(Instant updatedAt, UUID id) {
+
+    static NoteCursor of(Note note) {
+        return new NoteCursor(note.getUpdatedAt(), note.getId());
+    }
+
+    String encode() {
+        return OpaqueToken.encode(updatedAt, id);
+    }
+
+    static NoteCursor decode(String cursor) {
+        return OpaqueToken.decode(cursor, "Invalid cursor",
+                (updatedAt, id) -> new NoteCursor(Instant.parse(updatedAt), UUID.fromString(id)));
+    }
+}
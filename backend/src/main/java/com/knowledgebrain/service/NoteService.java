@@ -1,27 +1,48 @@
 package com.knowledgebrain.service;
 
+import com.knowledgebrain.dto.CursorResponse;
 import com.knowledgebrain.dto.PagedResponse;
+import com.knowledgebrain.dto.note.BatchNoteOperation;
+import com.knowledgebrain.dto.note.BatchNoteRequest;
+import com.knowledgebrain.dto.note.BatchNoteResponse;
 import com.knowledgebrain.dto.note.CreateNoteRequest;
+import com.knowledgebrain.dto.note.NoteChange;
+import com.knowledgebrain.dto.note.NoteChangesResponse;
+import com.knowledgebrain.dto.note.NoteFields;
 import com.knowledgebrain.dto.note.NoteResponse;
 import com.knowledgebrain.dto.note.NoteSearchResponse;
+import com.knowledgebrain.dto.note.SearchTotal;
 import com.knowledgebrain.dto.note.UpdateNoteRequest;
 import com.knowledgebrain.entity.Note;
 import com.knowledgebrain.exception.ResourceNotFoundException;
+import com.knowledgebrain.repository.NoteChangeProjection;
+import com.knowledgebrain.repository.NoteProjection;
 import com.knowledgebrain.repository.NoteRepository;
 import com.knowledgebrain.repository.NoteSearchProjection;
+import com.knowledgebrain.repository.NoteSummaryProjection;
 import com.knowledgebrain.websocket.NoteEventPublisher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -29,14 +50,15 @@ import java.util.UUID;
 @Slf4j
 public class NoteService {
 
+    // Upper bound for SearchTotal.ESTIMATE counts; beyond it the total is a lower bound
+    private static final int SEARCH_COUNT_CAP = 1000;
+
     private final NoteRepository noteRepository;
     private final NoteEventPublisher noteEventPublisher;
+    private final NoteCacheGenerations noteCacheGenerations;
+    private final AutosaveBuffer autosaveBuffer;
 
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = "notes", allEntries = true),
-            @CacheEvict(value = "noteSearch", allEntries = true)
-    })
     public NoteResponse createNote(UUID userId, CreateNoteRequest request) {
         Note note = Note.builder()
                 .userId(userId)
@@ -46,85 +68,392 @@ public class NoteService {
 
         Note saved = noteRepository.save(note);
         log.info("Created note {} for user {}", saved.getId(), userId);
+        noteCacheGenerations.invalidate(userId);
 
         NoteResponse response = NoteResponse.from(saved);
         noteEventPublisher.publishCreated(userId, response);
         return response;
     }
 
+    /**
+     * Current version of a single note, for ETag checks, without loading its content.
+     */
     @Transactional(readOnly = true)
-    public NoteResponse getNoteById(UUID userId, UUID noteId) {
-        Note note = noteRepository.findByIdAndUserId(noteId, userId)
-                .orElseThrow(() -> {
-                    log.warn("Note not found: {} for user {}", noteId, userId);
-                    return new ResourceNotFoundException("Note", "id", noteId);
-                });
+    public Instant getNoteVersion(UUID userId, UUID noteId) {
+        Instant updatedAt = noteRepository.findUpdatedAtByIdAndUserId(noteId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Note", "id", noteId));
+        return autosaveBuffer.find(userId, noteId)
+                .map(AutosaveBuffer.Buffered::stagedAt)
+                .filter(stagedAt -> stagedAt.isAfter(updatedAt))
+                .orElse(updatedAt);
+    }
+
+    /**
+     * Current version of the user's note list, for ETag checks.
+     */
+    @Transactional(readOnly = true)
+    public long getListVersion(UUID userId) {
+        return noteRepository.findListVersion(userId);
+    }
+
+    @Transactional(readOnly = true)
+    public NoteResponse getNoteById(UUID userId, UUID noteId, NoteFields fields) {
+        NoteResponse response = fields.includesContent()
+                ? noteRepository.findByIdAndUserId(noteId, userId).map(NoteResponse::from).orElse(null)
+                : noteRepository.findSummaryByIdAndUserId(noteId, userId).map(NoteResponse::from).orElse(null);
+        if (response == null) {
+            log.warn("Note not found: {} for user {}", noteId, userId);
+            throw new ResourceNotFoundException("Note", "id", noteId);
+        }
+        // Read-your-writes: overlay autosaved changes that are not flushed yet
+        autosaveBuffer.find(userId, noteId).ifPresent(buffered -> overlay(response, buffered));
         log.debug("Fetched note {} for user {}", noteId, userId);
-        return NoteResponse.from(note);
+        return fields.apply(response);
     }
 
+    private static void overlay(NoteResponse response, AutosaveBuffer.Buffered buffered) {
+        if (buffered.title() != null) {
+            response.setTitle(buffered.title());
+        }
+        if (buffered.content() != null && response.getContent() != null) {
+            response.setContent(buffered.content());
+        }
+        if (buffered.stagedAt().isAfter(response.getUpdatedAt())) {
+            response.setUpdatedAt(buffered.stagedAt());
+        }
+    }
+
+    /**
+     * Lists a page of notes. When the fieldset does not include content, rows come
+     * from the summary projection, so the TEXT column is never read and the cached
+     * page stays small.
+     * <p>
+     * {@code listVersion} is the version the caller derived its ETag from. It is part of
+     * the cache key, so a page cached before a write can never be served under a newer ETag.
+     */
     @Transactional(readOnly = true)
-    @Cacheable(value = "notes", key = "#userId + ':' + #page + ':' + #size")
-    public PagedResponse<NoteResponse> getNotes(UUID userId, int page, int size) {
+    @Cacheable(value = "notes", key = "#userId + ':' + @noteCacheGenerations.current(#userId) + ':' + #listVersion + ':' + #page + ':' + #size + ':' + #fields.cacheKey()")
+    public PagedResponse<NoteResponse> getNotes(UUID userId, int page, int size, NoteFields fields, long listVersion) {
         size = Math.min(size, 50);
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "updatedAt"));
-        Page<Note> notePage = noteRepository.findByUserId(userId, pageable);
-        log.debug("Listed notes for user {} (page={}, size={})", userId, page, size);
-        return PagedResponse.from(notePage, NoteResponse::from);
+        long total = noteRepository.findNoteCount(userId);
+        log.debug("Listed notes for user {} (page={}, size={}, fields={})", userId, page, size, fields);
+
+        if (fields.includesContent()) {
+            Slice<Note> noteSlice = noteRepository.findSliceByUserId(userId, pageable);
+            return PagedResponse.from(noteSlice, note -> fields.apply(NoteResponse.from(note)), total, true);
+        }
+        Slice<NoteSummaryProjection> summaries = noteRepository.findSummariesByUserId(userId, pageable);
+        return PagedResponse.from(summaries, note -> fields.apply(NoteResponse.from(note)), total, true);
     }
 
+    /**
+     * Keyset pagination over (updated_at, id). Fetches one extra row to detect
+     * whether another window exists, so no count query is ever issued.
+     */
+    @Transactional(readOnly = true)
+    public CursorResponse<NoteResponse> getNotesByCursor(UUID userId, String cursor, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one");
+        }
+        size = Math.min(size, 50);
+
+        List<Note> notes;
+        if (cursor == null || cursor.isBlank()) {
+            notes = noteRepository.findFirstWindowByUserId(userId, size + 1);
+        } else {
+            NoteCursor position = NoteCursor.decode(cursor);
+            notes = noteRepository.findWindowByUserIdAfter(userId, position.updatedAt(), position.id(), size + 1);
+        }
+
+        boolean hasNext = notes.size() > size;
+        List<Note> window = hasNext ? notes.subList(0, size) : notes;
+        log.debug("Listed notes for user {} by cursor (size={}, hasNext={})", userId, size, hasNext);
+
+        return CursorResponse.<NoteResponse>builder()
+                .content(window.stream().map(NoteResponse::from).toList())
+                .size(size)
+                .nextCursor(hasNext ? NoteCursor.of(window.get(window.size() - 1)).encode() : null)
+                .hasNext(hasNext)
+                .build();
+    }
+
+    /**
+     * Change feed for delta sync: creates, updates and tombstoned deletes after the
+     * given sync token, oldest first. Rows are only returned once every transaction
+     * that could still write behind them has finished (the snapshot xmin horizon), so
+     * a token never skips a change. Reconnect cost scales with the number of changes
+     * rather than the size of the library.
+     * <p>
+     * A token at or below the user's tombstone purge horizon restarts the feed from
+     * the beginning with {@code reset} set, since deletes it had not seen may be gone.
+     */
+    @Transactional(readOnly = true)
+    public NoteChangesResponse getChanges(UUID userId, String since, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must not be less than one");
+        }
+        limit = Math.min(limit, 500);
+
+        SyncToken after = since == null || since.isBlank() ? SyncToken.START : SyncToken.decode(since);
+        // Tombstones at or below the purge horizon are gone, so the token can no longer see every delete.
+        boolean reset = !after.equals(SyncToken.START) && after.xid() <= noteRepository.findPurgedXid(userId);
+        if (reset) {
+            after = SyncToken.START;
+        }
+        long horizon = noteRepository.findChangeHorizon();
+        List<NoteChangeProjection> rows =
+                noteRepository.findChanges(userId, after.xid(), after.id(), horizon, limit + 1);
+
+        boolean hasMore = rows.size() > limit;
+        List<NoteChangeProjection> window = hasMore ? rows.subList(0, limit) : rows;
+
+        SyncToken next;
+        if (hasMore) {
+            NoteChangeProjection last = window.get(window.size() - 1);
+            next = new SyncToken(last.getChangeXid(), last.getId());
+        } else {
+            // Caught up: everything below the horizon has been seen, so resume from there.
+            next = SyncToken.before(Math.max(horizon, after.xid()));
+        }
+        log.debug("Listed {} note changes for user {} (hasMore={}, reset={})", window.size(), userId, hasMore, reset);
+
+        return NoteChangesResponse.builder()
+                .changes(window.stream().map(NoteService::toChange).toList())
+                .syncToken(next.encode())
+                .hasMore(hasMore)
+                .reset(reset)
+                .build();
+    }
+
+    private static NoteChange toChange(NoteChangeProjection row) {
+        if (row.getDeletedAt() != null) {
+            return NoteChange.builder()
+                    .type(NoteChange.Type.DELETED)
+                    .noteId(row.getId())
+                    .deletedAt(row.getDeletedAt())
+                    .build();
+        }
+        return NoteChange.builder()
+                .type(NoteChange.Type.UPSERT)
+                .noteId(row.getId())
+                .note(NoteResponse.from(row))
+                .build();
+    }
+
+    /**
+     * Single round trip: one ownership-scoped UPDATE ... RETURNING, with no
+     * entity load or dirty check over the TEXT content.
+     * <p>
+     * With {@code autosave} the change is only merged into the {@link AutosaveBuffer}
+     * and written later by {@link AutosaveFlusher}, so a burst of keystroke saves
+     * costs one UPDATE (and one tsvector/GIN update) instead of one each. Without it
+     * this is an explicit save: pending autosaved fields are folded in and written now.
+     */
     @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = "notes", allEntries = true),
-            @CacheEvict(value = "noteSearch", allEntries = true)
-    })
-    public NoteResponse updateNote(UUID userId, UUID noteId, UpdateNoteRequest request) {
-        Note note = noteRepository.findByIdAndUserId(noteId, userId)
+    public NoteResponse updateNote(UUID userId, UUID noteId, UpdateNoteRequest request, boolean autosave) {
+        String title = request.getTitle() != null ? request.getTitle().trim() : null;
+        if (autosave) {
+            return stageAutosave(userId, noteId, title, request.getContent());
+        }
+
+        Optional<AutosaveBuffer.Buffered> buffered = autosaveBuffer.find(userId, noteId);
+        String content = request.getContent();
+        if (buffered.isPresent()) {
+            title = title != null ? title : buffered.get().title();
+            content = content != null ? content : buffered.get().content();
+        }
+
+        NoteProjection updated = noteRepository.updateOwnedNote(noteId, userId, title, content)
                 .orElseThrow(() -> {
                     log.warn("Note not found for update: {} for user {}", noteId, userId);
                     return new ResourceNotFoundException("Note", "id", noteId);
                 });
-
-        if (request.getTitle() != null) {
-            note.setTitle(request.getTitle().trim());
-        }
-        if (request.getContent() != null) {
-            note.setContent(request.getContent());
-        }
-
-        Note updated = noteRepository.save(note);
         log.info("Updated note {} for user {}", noteId, userId);
+        noteCacheGenerations.invalidate(userId);
+        buffered.ifPresent(b -> afterCommit(() ->
+                autosaveBuffer.acknowledge(noteId, b.version(), updated.getUpdatedAt())));
 
         NoteResponse response = NoteResponse.from(updated);
         noteEventPublisher.publishUpdated(userId, response);
         return response;
     }
 
-    @Transactional
-    @Caching(evict = {
-            @CacheEvict(value = "notes", allEntries = true),
-            @CacheEvict(value = "noteSearch", allEntries = true)
-    })
-    public void deleteNote(UUID userId, UUID noteId) {
+    private NoteResponse stageAutosave(UUID userId, UUID noteId, String title, String content) {
+        // Ownership check is a primary-key read; nothing is written to PostgreSQL
         Note note = noteRepository.findByIdAndUserId(noteId, userId)
                 .orElseThrow(() -> {
-                    log.warn("Note not found for delete: {} for user {}", noteId, userId);
+                    log.warn("Note not found for autosave: {} for user {}", noteId, userId);
                     return new ResourceNotFoundException("Note", "id", noteId);
                 });
-        noteRepository.delete(note);
+        autosaveBuffer.stage(userId, noteId, note.getUpdatedAt(), title, content);
+        log.debug("Buffered autosave for note {} of user {}", noteId, userId);
+
+        NoteResponse response = NoteResponse.from(note);
+        autosaveBuffer.find(userId, noteId).ifPresent(buffered -> overlay(response, buffered));
+        return response;
+    }
+
+    /**
+     * Writes a note's buffered autosave changes if the note has not been written since
+     * they were staged, and acknowledges the buffer version once this transaction has
+     * committed. Called by {@link AutosaveFlusher}. Returns false when the note was
+     * deleted or saved meanwhile: the read version is dropped rather than written
+     * over the newer row, and anything staged since is rebased onto that row.
+     */
+    @Transactional
+    public boolean flushAutosave(UUID noteId, AutosaveBuffer.Buffered buffered) {
+        UUID userId = buffered.userId();
+        // Buffers staged before the base was recorded are written unguarded
+        Optional<NoteProjection> updated = buffered.baseUpdatedAt() != null
+                ? noteRepository.updateOwnedNoteIfUnchanged(
+                        noteId, userId, buffered.title(), buffered.content(), buffered.baseUpdatedAt())
+                : noteRepository.updateOwnedNote(noteId, userId, buffered.title(), buffered.content());
+        if (updated.isEmpty()) {
+            Instant current = noteRepository.findUpdatedAtByIdAndUserId(noteId, userId).orElse(null);
+            log.debug("Discarding autosave for note {}: {}", noteId, current == null ? "deleted" : "saved since staged");
+            afterCommit(() -> autosaveBuffer.acknowledge(noteId, buffered.version(), current));
+            return false;
+        }
+        log.info("Flushed autosave for note {} of user {}", noteId, userId);
+        noteCacheGenerations.invalidate(userId);
+        afterCommit(() -> autosaveBuffer.acknowledge(noteId, buffered.version(), updated.get().getUpdatedAt()));
+        noteEventPublisher.publishUpdated(userId, NoteResponse.from(updated.get()));
+        return true;
+    }
+
+    @Transactional
+    public void deleteNote(UUID userId, UUID noteId) {
+        if (noteRepository.deleteByIdAndUserId(noteId, userId) == 0) {
+            log.warn("Note not found for delete: {} for user {}", noteId, userId);
+            throw new ResourceNotFoundException("Note", "id", noteId);
+        }
         log.info("Deleted note {} for user {}", noteId, userId);
+        noteCacheGenerations.invalidate(userId);
+        afterCommit(() -> autosaveBuffer.discard(List.of(noteId)));
 
         noteEventPublisher.publishDeleted(userId, noteId);
     }
 
+    /**
+     * Applies a mixed list of operations in one transaction. Operations are grouped by
+     * type (creates, then updates, then deletes) so Hibernate can batch each group into
+     * JDBC statement batches; updates load all targets with a single query. Caches are
+     * invalidated once and a single aggregated event is published. Any missing or
+     * foreign id rolls back the whole batch.
+     */
+    @Transactional
+    public BatchNoteResponse applyBatch(UUID userId, BatchNoteRequest request) {
+        List<Note> toCreate = new ArrayList<>();
+        Map<UUID, List<BatchNoteOperation>> updatesById = new LinkedHashMap<>();
+        Set<UUID> toDelete = new LinkedHashSet<>();
+
+        List<BatchNoteOperation> operations = request.getOperations();
+        for (int i = 0; i < operations.size(); i++) {
+            BatchNoteOperation operation = operations.get(i);
+            switch (operation.getOp()) {
+                case CREATE -> {
+                    if (operation.getTitle() == null || operation.getTitle().isBlank()) {
+                        throw new IllegalArgumentException("operations[" + i + "]: title is required");
+                    }
+                    toCreate.add(Note.builder()
+                            .userId(userId)
+                            .title(operation.getTitle().trim())
+                            .content(operation.getContent())
+                            .build());
+                }
+                case UPDATE -> updatesById
+                        .computeIfAbsent(requireId(operation, i), id -> new ArrayList<>())
+                        .add(operation);
+                case DELETE -> toDelete.add(requireId(operation, i));
+            }
+        }
+        for (UUID id : updatesById.keySet()) {
+            if (toDelete.contains(id)) {
+                throw new IllegalArgumentException("Note " + id + " is both updated and deleted in the same batch");
+            }
+        }
+
+        List<Note> created = noteRepository.saveAll(toCreate);
+
+        List<Note> updated = List.of();
+        if (!updatesById.isEmpty()) {
+            updated = noteRepository.findAllByIdInAndUserId(updatesById.keySet(), userId);
+            if (updated.size() != updatesById.size()) {
+                Set<UUID> found = new HashSet<>();
+                updated.forEach(note -> found.add(note.getId()));
+                UUID missing = updatesById.keySet().stream().filter(id -> !found.contains(id)).findFirst().orElseThrow();
+                throw new ResourceNotFoundException("Note", "id", missing);
+            }
+            for (Note note : updated) {
+                for (BatchNoteOperation operation : updatesById.get(note.getId())) {
+                    if (operation.getTitle() != null) {
+                        note.setTitle(operation.getTitle().trim());
+                    }
+                    if (operation.getContent() != null) {
+                        note.setContent(operation.getContent());
+                    }
+                }
+            }
+        }
+
+        // Flush the batched inserts/updates so generated timestamps are final in the response
+        noteRepository.flush();
+
+        if (!toDelete.isEmpty()) {
+            int deleted = noteRepository.deleteOwnedNotes(userId, toDelete);
+            if (deleted != toDelete.size()) {
+                throw new ResourceNotFoundException("One or more notes to delete were not found");
+            }
+        }
+
+        log.info("Applied batch for user {}: {} created, {} updated, {} deleted",
+                userId, created.size(), updated.size(), toDelete.size());
+        noteCacheGenerations.invalidate(userId);
+        // The batch supersedes pending autosaves of the notes it touched
+        Set<UUID> touched = new HashSet<>(updatesById.keySet());
+        touched.addAll(toDelete);
+        afterCommit(() -> autosaveBuffer.discard(touched));
+
+        BatchNoteResponse response = BatchNoteResponse.builder()
+                .created(created.stream().map(NoteResponse::from).toList())
+                .updated(updated.stream().map(NoteResponse::from).toList())
+                .deleted(List.copyOf(toDelete))
+                .build();
+        noteEventPublisher.publishBatch(userId, response.getCreated(), response.getUpdated(), response.getDeleted());
+        return response;
+    }
+
+    private static UUID requireId(BatchNoteOperation operation, int index) {
+        if (operation.getId() == null) {
+            throw new IllegalArgumentException("operations[" + index + "]: id is required for " + operation.getOp());
+        }
+        return operation.getId();
+    }
+
     @Transactional(readOnly = true)
-    @Cacheable(value = "noteSearch", key = "#userId + ':' + #query + ':' + #page + ':' + #size")
-    public PagedResponse<NoteSearchResponse> searchNotes(UUID userId, String query, int page, int size) {
+    @Cacheable(value = "noteSearch", key = "#userId + ':' + @noteCacheGenerations.current(#userId) + ':' + #total + ':' + #query + ':' + #page + ':' + #size")
+    public PagedResponse<NoteSearchResponse> searchNotes(UUID userId, String query, int page, int size, SearchTotal total) {
         size = Math.min(size, 50);
+        String trimmed = query.trim();
         Pageable pageable = PageRequest.of(page, size);
-        Page<NoteSearchProjection> results = noteRepository.searchNotes(userId, query.trim(), pageable);
-        log.info("Search '{}' for user {} returned {} results", query.trim(), userId, results.getTotalElements());
-        return PagedResponse.from(results, this::toSearchResponse);
+        List<NoteSearchProjection> rows =
+                noteRepository.searchNotes(userId, trimmed, size + 1, pageable.getOffset());
+        boolean hasNext = rows.size() > size;
+        Slice<NoteSearchProjection> results =
+                new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, pageable, hasNext);
+        log.info("Search '{}' for user {} returned {} results (page={})",
+                trimmed, userId, results.getNumberOfElements(), page);
+
+        return switch (total) {
+            case NONE -> PagedResponse.from(results, this::toSearchResponse);
+            case EXACT -> PagedResponse.from(results, this::toSearchResponse,
+                    noteRepository.countSearchMatches(userId, trimmed), true);
+            case ESTIMATE -> {
+                long capped = noteRepository.countSearchMatchesUpTo(userId, trimmed, SEARCH_COUNT_CAP);
+                yield PagedResponse.from(results, this::toSearchResponse, capped, capped < SEARCH_COUNT_CAP);
+            }
+        };
     }
 
     private NoteSearchResponse toSearchResponse(NoteSearchProjection projection) {
@@ -139,4 +468,20 @@ public class NoteService {
                 .headline(projection.getHeadline())
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Runs Redis-side bookkeeping only once the database change is durable.
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.knowledgebrain.service;
+
+import com.knowledgebrain.repository.NoteRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Periodically hard-deletes note tombstones older than
+ * {@code app.notes.tombstones.retention}, in leased, time-budgeted batches
+ * ({@link LeasedBatchPurge}).
+ * <p>
+ * Each batch raises the owners' purge horizon; the change feed answers sync tokens
+ * at or below it with a reset, since deletes they had not seen may be gone.
+ */
+@Component
+public class NoteTombstonePurger {
+
+    private final NoteRepository noteRepository;
+    private final Duration retention;
+    private final int batchSize;
+    private final LeasedBatchPurge purge;
+
+    public NoteTombstonePurger(NoteRepository noteRepository,
+                               StringRedisTemplate redisTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.notes.tombstones.retention:30d}") Duration retention,
+                               @Value("${app.notes.tombstones.batch-size:500}") int batchSize,
+                               @Value("${app.notes.tombstones.time-budget:5s}") Duration timeBudget) {
+        this.noteRepository = noteRepository;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.purge = new LeasedBatchPurge(redisTemplate, meterRegistry,
+                "notes:tombstones:purge:lock", "notes.tombstones", "note tombstones", batchSize, timeBudget);
+    }
+
+    @Scheduled(fixedDelayString = "${app.notes.tombstones.interval-ms:3600000}",
+            initialDelayString = "${app.notes.tombstones.interval-ms:3600000}")
+    public void purge() {
+        Instant deletedBefore = Instant.now().minus(retention);
+        purge.run(() -> noteRepository.purgeTombstones(deletedBefore, batchSize));
+    }
+}
@@ -0,0 +1,37 @@
+package com.knowledgebrain.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.function.BiFunction;
+
+/**
+ * Codec for two-part position tokens (cursors, sync tokens): {@code head|tail}
+ * encoded as URL-safe base64 without padding, so clients treat them as opaque.
+ */
+final class OpaqueToken {
+
+    private static final char SEPARATOR = '|';
+
+    private OpaqueToken() {
+    }
+
+    static String encode(Object head, Object tail) {
+        String raw = String.valueOf(head) + SEPARATOR + tail;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Splits the token at its first separator and parses the parts. Any failure,
+     * in the encoding or in {@code parse}, becomes an IllegalArgumentException
+     * with {@code invalidMessage}.
+     */
+    static <T> T decode(String token, String invalidMessage, BiFunction<String, String, T> parse) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return parse.apply(raw.substring(0, separator), raw.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(invalidMessage);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.knowledgebrain.service;
+
+import com.knowledgebrain.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Periodically deletes expired refresh tokens, and revoked ones once they are past
+ * {@code app.jwt.purge.revoked-retention}, in leased, time-budgeted batches
+ * ({@link LeasedBatchPurge}).
+ * <p>
+ * Revoked tokens are kept for a while on purpose: replaying one within the
+ * retention window, counted from its revocation, still triggers reuse detection.
+ */
+@Component
+@ConditionalOnProperty(name = "app.jwt.refresh-token-store", havingValue = "jpa", matchIfMissing = true)
+public class RefreshTokenPurger {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Duration revokedRetention;
+    private final int batchSize;
+    private final LeasedBatchPurge purge;
+
+    public RefreshTokenPurger(RefreshTokenRepository refreshTokenRepository,
+                              StringRedisTemplate redisTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.jwt.purge.revoked-retention:1d}") Duration revokedRetention,
+                              @Value("${app.jwt.purge.batch-size:500}") int batchSize,
+                              @Value("${app.jwt.purge.time-budget:5s}") Duration timeBudget) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.revokedRetention = revokedRetention;
+        this.batchSize = batchSize;
+        this.purge = new LeasedBatchPurge(redisTemplate, meterRegistry,
+                "auth:refresh:purge:lock", "auth.refresh.tokens", "refresh tokens", batchSize, timeBudget);
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.purge.interval-ms:600000}",
+            initialDelayString = "${app.jwt.purge.interval-ms:600000}")
+    public void purge() {
+        Instant revokedBefore = Instant.now().minus(revokedRetention);
+        purge.run(() -> refreshTokenRepository.purgeBatch(revokedBefore, batchSize));
+    }
+}
@@ -0,0 +1,28 @@
+package com.knowledgebrain.service;
+
+import java.util.UUID;
+
+/**
+ * Position in a user's change feed, ordered by (change_xid, id), exchanged as an
+ * {@link OpaqueToken}.
+ */
+record SyncToken(long xid, UUID id) {
+
+    private static final UUID MIN_ID = new UUID(0L, 0L);
+
+    static final SyncToken START = new SyncToken(0L, MIN_ID);
+
+    /** Position just before every change made by transactions at or after {@code xid}. */
+    static SyncToken before(long xid) {
+        return new SyncToken(xid, MIN_ID);
+    }
+
+    String encode() {
+        return OpaqueToken.encode(xid, id);
+    }
+
+    static SyncToken decode(String token) {
+        return OpaqueToken.decode(token, "Invalid sync token",
+                (xid, id) -> new SyncToken(Long.parseLong(xid), UUID.fromString(id)));
+    }
+}
@@ -0,0 +1,69 @@
+package com.knowledgebrain.websocket;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.knowledgebrain.dto.websocket.NoteEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Node-local replay rings. Idle users' rings are evicted; their next event starts
+ * a new epoch, which reconnecting clients see as a RESYNC.
+ */
+@Component
+@ConditionalOnProperty(name = "app.websocket.replay.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryNoteEventReplayBuffer implements NoteEventReplayBuffer {
+
+    private final int capacity;
+    private final Cache<UUID, Ring> rings;
+
+    public InMemoryNoteEventReplayBuffer(@Value("${app.websocket.replay.capacity:256}") int capacity,
+                                         @Value("${app.websocket.replay.ttl:1h}") Duration ttl) {
+        this.capacity = capacity;
+        this.rings = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterAccess(ttl)
+                .build();
+    }
+
+    @Override
+    public NoteEvent append(UUID userId, NoteEvent event) {
+        Ring ring = rings.get(userId, id -> new Ring());
+        synchronized (ring) {
+            event.setSeq(++ring.seq);
+            event.setEpoch(ring.epoch);
+            if (ring.events.size() == capacity) {
+                ring.events.removeFirst();
+            }
+            ring.events.addLast(event);
+        }
+        return event;
+    }
+
+    @Override
+    public NoteEvent replay(UUID userId, String epoch, long afterSeq) {
+        Ring ring = rings.get(userId, id -> new Ring());
+        synchronized (ring) {
+            long oldest = ring.events.isEmpty() ? ring.seq + 1 : ring.events.getFirst().getSeq();
+            if (!ring.epoch.equals(epoch) || afterSeq < oldest - 1 || afterSeq > ring.seq) {
+                return NoteEvent.resync(ring.epoch, ring.seq);
+            }
+            List<NoteEvent> missed = ring.events.stream()
+                    .filter(event -> event.getSeq() > afterSeq)
+                    .toList();
+            return NoteEvent.replay(missed);
+        }
+    }
+
+    private static final class Ring {
+        private final String epoch = UUID.randomUUID().toString();
+        private final ArrayDeque<NoteEvent> events = new ArrayDeque<>();
+        private long seq;
+    }
+}
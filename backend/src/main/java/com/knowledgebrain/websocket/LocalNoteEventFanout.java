@@ -0,0 +1,27 @@
+package com.knowledgebrain.websocket;
+
+import com.knowledgebrain.dto.websocket.NoteEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Single-node fan-out: hands the event straight to the local simple broker.
+ */
+@Component
+@ConditionalOnProperty(name = "app.websocket.fanout", havingValue = "local", matchIfMissing = true)
+@RequiredArgsConstructor
+public class LocalNoteEventFanout implements NoteEventFanout {
+
+    static final String DESTINATION = "/queue/notes";
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Override
+    public void publish(UUID userId, NoteEvent event) {
+        messagingTemplate.convertAndSendToUser(userId.toString(), DESTINATION, event);
+    }
+}
@@ -0,0 +1,168 @@
+package com.knowledgebrain.websocket;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.knowledgebrain.dto.note.NoteResponse;
+import com.knowledgebrain.dto.websocket.NoteDelta;
+import com.knowledgebrain.dto.websocket.NoteEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-note coalescing of committed update events. Updates are held for one
+ * window ({@code app.websocket.coalesce.window-ms}) and only the latest state per
+ * note is sent. Large bodies go out as a {@link NoteDelta} against the last
+ * version this node sent when that is meaningfully smaller than the full content.
+ * Deltas are only used while the fan-out stays on this node; once events reach
+ * sessions through other nodes, clients may not hold this node's base, so full
+ * bodies are sent.
+ * <p>
+ * Creates, deletes and batches are sent immediately; they supersede any pending
+ * update for the notes they touch, so an older update is never sent after them.
+ * <p>
+ * Each user's pending updates are queued, taken and delivered under one lock, and
+ * events are sequenced and published under it too. A create or delete therefore
+ * either supersedes an update before the flush takes it or is delivered after it,
+ * and everything reaches the fan-out in sequence order even though it comes from
+ * concurrent async threads and the flush job.
+ */
+@Component
+@Slf4j
+public class NoteEventCoalescer {
+
+    private final NoteEventFanout fanout;
+    private final NoteEventReplayBuffer replayBuffer;
+    private final int deltaMinLength;
+    private final boolean deltas;
+
+    private final Map<UUID, PendingUpdate> pending = new ConcurrentHashMap<>();
+
+    // Striped by user: one user's events always map to the same lock.
+    private final Object[] deliveryLocks = new Object[64];
+
+    // Last full version sent per note: the base for deltas. Weighed by content length.
+    private final Cache<UUID, NoteResponse> lastSent;
+
+    private final Counter coalesced;
+    private final Counter patched;
+
+    public NoteEventCoalescer(NoteEventFanout fanout,
+                              NoteEventReplayBuffer replayBuffer,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.websocket.coalesce.delta-min-length:1024}") int deltaMinLength,
+                              @Value("${app.websocket.coalesce.base-cache-max-chars:32000000}") long baseCacheMaxChars) {
+        this.fanout = fanout;
+        this.replayBuffer = replayBuffer;
+        this.deltaMinLength = deltaMinLength;
+        this.deltas = fanout.isNodeLocal();
+        for (int i = 0; i < deliveryLocks.length; i++) {
+            deliveryLocks[i] = new Object();
+        }
+        this.lastSent = Caffeine.newBuilder()
+                .maximumWeight(baseCacheMaxChars)
+                .weigher((UUID id, NoteResponse note) -> note.getContent() != null ? note.getContent().length() : 0)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+        this.coalesced = Counter.builder("notes.events.coalesced")
+                .description("Note update events superseded within the coalescing window")
+                .register(meterRegistry);
+        this.patched = Counter.builder("notes.events.patched")
+                .description("Note update events sent as content deltas")
+                .register(meterRegistry);
+    }
+
+    public void submit(UUID userId, NoteEvent event) {
+        synchronized (lockFor(userId)) {
+            switch (event.getType()) {
+                case UPDATED -> {
+                    if (pending.put(event.getNoteId(), new PendingUpdate(userId, event.getNote())) != null) {
+                        coalesced.increment();
+                    }
+                }
+                case BATCH -> {
+                    event.getEvents().forEach(this::supersede);
+                    deliver(userId, event);
+                }
+                default -> {
+                    supersede(event);
+                    deliver(userId, event);
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.websocket.coalesce.window-ms:250}")
+    public void flush() {
+        for (Map.Entry<UUID, PendingUpdate> entry : pending.entrySet()) {
+            UUID noteId = entry.getKey();
+            UUID userId = entry.getValue().userId();
+            try {
+                // Taking and delivering under the user's lock keeps a concurrent
+                // create or delete from being sequenced ahead of this update.
+                synchronized (lockFor(userId)) {
+                    PendingUpdate update = pending.remove(noteId);
+                    if (update != null) {
+                        deliver(update.userId(), toEvent(update.note()));
+                    }
+                }
+            } catch (Exception e) {
+                // WebSocket delivery is best-effort.
+                log.error("Failed to publish coalesced update for note {}: {}", noteId, e.getMessage(), e);
+            }
+        }
+    }
+
+    // Every outgoing event is sequenced first so reconnecting clients can replay it.
+    // Callers hold the user's lock, which keeps publish order equal to seq order.
+    private void deliver(UUID userId, NoteEvent event) {
+        fanout.publish(userId, replayBuffer.append(userId, event));
+    }
+
+    private Object lockFor(UUID userId) {
+        return deliveryLocks[Math.floorMod(userId.hashCode(), deliveryLocks.length)];
+    }
+
+    private void supersede(NoteEvent event) {
+        pending.remove(event.getNoteId());
+        if (!deltas) {
+            return;
+        }
+        if (event.getType() == NoteEvent.Type.DELETED) {
+            lastSent.invalidate(event.getNoteId());
+        } else if (event.getNote() != null) {
+            lastSent.put(event.getNoteId(), event.getNote());
+        }
+    }
+
+    private NoteEvent toEvent(NoteResponse note) {
+        if (!deltas) {
+            return NoteEvent.updated(note);
+        }
+        NoteResponse base = lastSent.getIfPresent(note.getId());
+        lastSent.put(note.getId(), note);
+
+        String content = note.getContent();
+        if (base == null || base.getContent() == null || content == null || content.length() < deltaMinLength) {
+            return NoteEvent.updated(note);
+        }
+        NoteDelta delta = NoteDelta.between(base.getContent(), content, base.getUpdatedAt());
+        // Only worth it when the splice is well under the full body.
+        if (delta.getInsert().length() * 2 > content.length()) {
+            return NoteEvent.updated(note);
+        }
+        patched.increment();
+        return NoteEvent.patched(note, delta);
+    }
+
+    private record PendingUpdate(UUID userId, NoteResponse note) {
+    }
+}
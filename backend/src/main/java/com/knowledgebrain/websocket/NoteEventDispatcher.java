@@ -0,0 +1,32 @@
+package com.knowledgebrain.websocket;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Hands {@link UserNoteEvent}s to the {@link NoteEventCoalescer} after the raising
+ * transaction commits, on the bounded {@code taskExecutor} rather than the request
+ * thread. Events from rolled-back transactions are never sent. Outside a
+ * transaction the event is delivered immediately (still asynchronously).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NoteEventDispatcher {
+
+    private final NoteEventCoalescer coalescer;
+
+    @Async("taskExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNoteEvent(UserNoteEvent event) {
+        try {
+            coalescer.submit(event.userId(), event.event());
+        } catch (Exception e) {
+            // WebSocket delivery is best-effort. Never fail the HTTP request because of WS.
+            log.error("Failed to publish WebSocket event: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.knowledgebrain.websocket;
+
+import com.knowledgebrain.dto.websocket.NoteEvent;
+
+import java.util.UUID;
+
+/**
+ * Routes a note event to every WebSocket session of the user, wherever it is
+ * connected. Selected by {@code app.websocket.fanout}: {@code local} delivers
+ * through this node's in-memory broker only; {@code redis} relays through Redis
+ * so each node delivers to its own sessions.
+ */
+public interface NoteEventFanout {
+
+    void publish(UUID userId, NoteEvent event);
+
+    /**
+     * Whether every recipient receives only events published by this node. Delta
+     * bases are tracked per node, so deltas are only sent when this holds.
+     */
+    default boolean isNodeLocal() {
+        return true;
+    }
+}
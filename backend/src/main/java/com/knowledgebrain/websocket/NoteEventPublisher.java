@@ -4,19 +4,23 @@ import com.knowledgebrain.dto.note.NoteResponse;
 import com.knowledgebrain.dto.websocket.NoteEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
+/**
+ * Raises note events as transactional application events. Delivery happens in
+ * {@link NoteEventDispatcher} after commit, off the request thread.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class NoteEventPublisher {
 
-    private final SimpMessagingTemplate messagingTemplate;
-
-    private static final String DESTINATION = "/queue/notes";
+    private final ApplicationEventPublisher eventPublisher;
 
     public void publishCreated(UUID userId, NoteResponse note) {
         NoteEvent event = NoteEvent.created(note);
@@ -36,16 +40,16 @@ public class NoteEventPublisher {
         log.info("Published NOTE_DELETED event for note {} to user {}", noteId, userId);
     }
 
+    public void publishBatch(UUID userId, List<NoteResponse> created, List<NoteResponse> updated, List<UUID> deleted) {
+        List<NoteEvent> events = new ArrayList<>(created.size() + updated.size() + deleted.size());
+        created.forEach(note -> events.add(NoteEvent.created(note)));
+        updated.forEach(note -> events.add(NoteEvent.updated(note)));
+        deleted.forEach(noteId -> events.add(NoteEvent.deleted(noteId)));
+        send(userId, NoteEvent.batch(events));
+        log.info("Published NOTE_BATCH event with {} changes to user {}", events.size(), userId);
+    }
+
     private void send(UUID userId, NoteEvent event) {
-        try {
-            messagingTemplate.convertAndSendToUser(
-                    userId.toString(),
-                    DESTINATION,
-                    event
-            );
-        } catch (Exception e) {
-            // WebSocket delivery is best-effort. Never fail the HTTP request because of WS.
-            log.error("Failed to publish WebSocket event: {}", e.getMessage(), e);
-        }
+        eventPublisher.publishEvent(new UserNoteEvent(userId, event));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,25 @@
+package com.knowledgebrain.websocket;
+
+import com.knowledgebrain.dto.websocket.NoteEvent;
+
+import java.util.UUID;
+
+/**
+ * Bounded, per-user ring of delivered note events. Every outgoing event is stamped
+ * with the user's next sequence number, so a reconnecting client can ask for
+ * exactly what it missed. Selected by {@code app.websocket.replay.store}:
+ * {@code memory} (per node) or {@code redis} (shared, required with Redis fan-out).
+ */
+public interface NoteEventReplayBuffer {
+
+    /**
+     * Assigns the event its sequence number and epoch and records it.
+     */
+    NoteEvent append(UUID userId, NoteEvent event);
+
+    /**
+     * A REPLAY event with everything after {@code afterSeq}, or RESYNC when the
+     * epoch changed or the gap has already fallen out of the ring.
+     */
+    NoteEvent replay(UUID userId, String epoch, long afterSeq);
+}
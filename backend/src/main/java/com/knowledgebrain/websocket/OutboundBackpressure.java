@@ -0,0 +1,269 @@
+package com.knowledgebrain.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.knowledgebrain.dto.websocket.NoteEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-session outbound queue accounting and slow-consumer handling.
+ * <p>
+ * A MESSAGE counts as queued from the moment it enters the client outbound channel
+ * until its frame is actually written to the socket, so the depth covers both the
+ * outbound executor queue and Spring's per-session send buffer. When a session's
+ * depth exceeds the limit the configured {@link SlowConsumerPolicy} applies — well
+ * before the transport's hard send-buffer limit would terminate it. A message the
+ * channel fails to hand off is released again, and a closed session's count is cleared.
+ */
+@Component
+@Slf4j
+public class OutboundBackpressure implements ChannelInterceptor, WebSocketHandlerDecoratorFactory {
+
+    private static final byte[] MESSAGE_COMMAND = "MESSAGE".getBytes(StandardCharsets.US_ASCII);
+
+    @Getter
+    private final int maxQueuedMessages;
+    @Getter
+    private final SlowConsumerPolicy policy;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, SessionState> sessions = new ConcurrentHashMap<>();
+
+    private final Counter dropped;
+    private final Counter resyncs;
+    private final Counter disconnects;
+
+    public OutboundBackpressure(ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.websocket.backpressure.max-queued-messages:100}") int maxQueuedMessages,
+                                @Value("${app.websocket.backpressure.policy:RESYNC}") SlowConsumerPolicy policy) {
+        this.objectMapper = objectMapper;
+        this.maxQueuedMessages = maxQueuedMessages;
+        this.policy = policy;
+        this.dropped = slowConsumerCounter(meterRegistry, "drop");
+        this.resyncs = slowConsumerCounter(meterRegistry, "resync");
+        this.disconnects = slowConsumerCounter(meterRegistry, "disconnect");
+        Gauge.builder("websocket.sessions.queued", sessions,
+                        map -> map.values().stream().mapToInt(state -> state.queued.get()).sum())
+                .description("Outbound STOMP messages not yet written, across all sessions")
+                .register(meterRegistry);
+        Gauge.builder("websocket.sessions.queued.max", sessions,
+                        map -> map.values().stream().mapToInt(state -> state.queued.get()).max().orElse(0))
+                .description("Deepest outbound queue of any single session")
+                .register(meterRegistry);
+    }
+
+    private static Counter slowConsumerCounter(MeterRegistry meterRegistry, String action) {
+        return Counter.builder("websocket.slow_consumer.actions")
+                .description("Slow-consumer policy actions taken on outbound messages")
+                .tag("action", action)
+                .register(meterRegistry);
+    }
+
+    public Collection<SessionState> sessions() {
+        return sessions.values();
+    }
+
+    // --- Outbound channel: count messages in, apply the policy on overflow ---
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return message;
+        }
+        SessionState state = sessions.get(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+        if (state == null) {
+            return message;
+        }
+        if (state.queued.get() < maxQueuedMessages) {
+            state.queued.incrementAndGet();
+            return message;
+        }
+
+        state.dropped.incrementAndGet();
+        switch (policy) {
+            case DROP -> dropped.increment();
+            case RESYNC -> {
+                // One RESYNC per overflow episode; it tells the client to refetch
+                if (state.resyncPending.compareAndSet(false, true)) {
+                    resyncs.increment();
+                    state.queued.incrementAndGet();
+                    return resyncMessage(message);
+                }
+                dropped.increment();
+            }
+            case DISCONNECT -> {
+                disconnects.increment();
+                log.warn("Closing slow WebSocket session {} ({} messages queued)", state.getSessionId(), state.queued.get());
+                state.close();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Releases a counted message that never reached the executor: rejected, vetoed by a
+     * later interceptor, or failed on send. Only messages this interceptor passed on
+     * come back here, so any MESSAGE for a tracked session was counted in preSend.
+     */
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        if (sent && ex == null) {
+            return;
+        }
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return;
+        }
+        SessionState state = sessions.get(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+        if (state != null) {
+            state.release();
+        }
+    }
+
+    private Message<?> resyncMessage(Message<?> original) {
+        try {
+            NoteEvent resync = NoteEvent.builder()
+                    .type(NoteEvent.Type.RESYNC)
+                    .timestamp(Instant.now())
+                    .build();
+            MessageHeaderAccessor accessor = MessageHeaderAccessor.getMutableAccessor(original);
+            return MessageBuilder.createMessage(objectMapper.writeValueAsBytes(resync), accessor.getMessageHeaders());
+        } catch (IOException e) {
+            log.error("Failed to build RESYNC message: {}", e.getMessage(), e);
+            return null;
+        }
+    }
+
+    // --- Transport: track sessions and count frames actually written ---
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                SessionState state = new SessionState(session);
+                sessions.put(session.getId(), state);
+                super.afterConnectionEstablished(new CountingSession(session, state));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                SessionState state = sessions.remove(session.getId());
+                if (state != null) {
+                    // Frames still buffered for a closed session will never be written
+                    state.clear();
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    private static boolean isMessageFrame(WebSocketMessage<?> message) {
+        Object payload = message.getPayload();
+        if (payload instanceof String text) {
+            return text.startsWith("MESSAGE");
+        }
+        if (payload instanceof ByteBuffer bytes && bytes.remaining() >= MESSAGE_COMMAND.length) {
+            for (int i = 0; i < MESSAGE_COMMAND.length; i++) {
+                if (bytes.get(bytes.position() + i) != MESSAGE_COMMAND[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Sits beneath Spring's buffering session decorator, so it only sees frames
+     * when they are actually written.
+     */
+    private static final class CountingSession extends WebSocketSessionDecorator {
+
+        private final SessionState state;
+
+        CountingSession(WebSocketSession delegate, SessionState state) {
+            super(delegate);
+            this.state = state;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            try {
+                super.sendMessage(message);
+            } finally {
+                if (isMessageFrame(message)) {
+                    state.release();
+                }
+            }
+        }
+    }
+
+    @Getter
+    public static final class SessionState {
+
+        private final String sessionId;
+        private final Instant connectedAt = Instant.now();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicLong dropped = new AtomicLong();
+        @Getter(AccessLevel.NONE)
+        private final AtomicBoolean resyncPending = new AtomicBoolean();
+        @Getter(AccessLevel.NONE)
+        private final WebSocketSession session;
+
+        SessionState(WebSocketSession session) {
+            this.sessionId = session.getId();
+            this.session = session;
+        }
+
+        void release() {
+            if (queued.updateAndGet(n -> Math.max(0, n - 1)) == 0) {
+                resyncPending.set(false);
+            }
+        }
+
+        void clear() {
+            queued.set(0);
+            resyncPending.set(false);
+        }
+
+        void close() {
+            try {
+                session.close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (IOException e) {
+                log.debug("Failed to close WebSocket session {}: {}", sessionId, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.knowledgebrain.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-connection payload format negotiation for the native (non-SockJS) endpoint.
+ * A client that sends {@code payload-format: cbor} in its CONNECT frame receives
+ * every MESSAGE body as CBOR in a binary frame
+ * ({@code content-type: application/octet-stream}, {@code payload-format: cbor});
+ * everyone else keeps JSON text. Client-to-server frames stay JSON.
+ * <p>
+ * Bodies are serialized to JSON once by the broker; the CBOR form is transcoded
+ * once per distinct payload (cached by identity), not once per session.
+ */
+@Component
+@Slf4j
+public class PayloadFormatInterceptor implements ChannelInterceptor, HandshakeInterceptor {
+
+    public static final String PAYLOAD_FORMAT_HEADER = "payload-format";
+    private static final String CBOR = "cbor";
+    private static final String NATIVE_ATTRIBUTE = "kb.native-websocket";
+
+    private final ObjectMapper objectMapper;
+    private final CBORMapper cborMapper = new CBORMapper();
+
+    private final Set<String> cborSessions = ConcurrentHashMap.newKeySet();
+
+    // Weak keys compare by identity: one entry per broker payload, shared by its sessions
+    private final Cache<byte[], byte[]> transcoded = Caffeine.newBuilder()
+            .weakKeys()
+            .maximumSize(1_000)
+            .build();
+
+    public PayloadFormatInterceptor(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    // --- Handshake on /ws-native: binary frames are only possible without SockJS ---
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        attributes.put(NATIVE_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+
+    // --- Channels: record the choice on CONNECT, transcode outbound MESSAGEs ---
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+        if (type == SimpMessageType.CONNECT) {
+            negotiate(message);
+            return message;
+        }
+        if (type != SimpMessageType.MESSAGE
+                || !cborSessions.contains(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()))
+                || !(message.getPayload() instanceof byte[] json)) {
+            return message;
+        }
+
+        byte[] cbor = transcoded.get(json, this::toCbor);
+        if (cbor == null) {
+            return message;
+        }
+        MessageHeaderAccessor accessor = MessageHeaderAccessor.getMutableAccessor(message);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        if (accessor instanceof SimpMessageHeaderAccessor simpAccessor) {
+            simpAccessor.setNativeHeader(PAYLOAD_FORMAT_HEADER, CBOR);
+        }
+        return MessageBuilder.createMessage(cbor, accessor.getMessageHeaders());
+    }
+
+    private void negotiate(Message<?> message) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.CONNECT) {
+            return;
+        }
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        boolean nativeSession = attributes != null && Boolean.TRUE.equals(attributes.get(NATIVE_ATTRIBUTE));
+        if (nativeSession && CBOR.equalsIgnoreCase(accessor.getFirstNativeHeader(PAYLOAD_FORMAT_HEADER))) {
+            cborSessions.add(accessor.getSessionId());
+            log.debug("WebSocket session {} negotiated CBOR payloads", accessor.getSessionId());
+        }
+    }
+
+    private byte[] toCbor(byte[] json) {
+        try {
+            return cborMapper.writeValueAsBytes(objectMapper.readTree(json));
+        } catch (Exception e) {
+            log.error("Failed to transcode payload to CBOR: {}", e.getMessage(), e);
+            return null;
+        }
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        cborSessions.remove(event.getSessionId());
+    }
+}
@@ -0,0 +1,137 @@
+package com.knowledgebrain.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.knowledgebrain.dto.websocket.NoteEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Multi-node fan-out over Redis pub/sub. Events are published to a per-user
+ * channel ({@code kb:note-events:<userId>}); a node subscribes to a user's channel
+ * while it holds at least one of that user's sessions and delivers what it receives
+ * to its local broker only. Nodes without sessions for a user receive nothing.
+ * <p>
+ * The publishing node also delivers via Redis, never directly, so a session sees
+ * each event exactly once regardless of which node served the write.
+ */
+@Component
+@ConditionalOnProperty(name = "app.websocket.fanout", havingValue = "redis")
+@RequiredArgsConstructor
+@Slf4j
+public class RedisNoteEventFanout implements NoteEventFanout, MessageListener {
+
+    private static final String CHANNEL_PREFIX = "kb:note-events:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+
+    // Locally connected session ids per user; the channel is subscribed while non-empty.
+    // Only touched under the user's subscription lock.
+    private final Map<UUID, Set<String>> localSessions = new ConcurrentHashMap<>();
+
+    // Striped by user. Serializes one user's subscribe and unsubscribe calls, which
+    // block on the listener container, without running them inside a map compute.
+    private final Object[] subscriptionLocks = IntStream.range(0, 64).mapToObj(i -> new Object()).toArray();
+
+    @Override
+    public void publish(UUID userId, NoteEvent event) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL_PREFIX + userId, objectMapper.writeValueAsString(event));
+        } catch (Exception e) {
+            log.error("Failed to relay note event to user {}: {}", userId, e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean isNodeLocal() {
+        return false;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+            UUID userId = UUID.fromString(channel.substring(CHANNEL_PREFIX.length()));
+            NoteEvent event = objectMapper.readValue(message.getBody(), NoteEvent.class);
+            messagingTemplate.convertAndSendToUser(userId.toString(), LocalNoteEventFanout.DESTINATION, event);
+        } catch (Exception e) {
+            log.error("Failed to deliver relayed note event: {}", e.getMessage(), e);
+        }
+    }
+
+    @EventListener
+    public void onSessionConnected(SessionConnectedEvent event) {
+        UUID userId = userId(event.getUser());
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (userId == null || sessionId == null) {
+            return;
+        }
+        synchronized (lockFor(userId)) {
+            Set<String> sessions = localSessions.computeIfAbsent(userId, id -> new HashSet<>());
+            if (sessions.add(sessionId) && sessions.size() == 1) {
+                listenerContainer.addMessageListener(this, topic(userId));
+            }
+        }
+    }
+
+    /**
+     * Spring may publish more than one disconnect event per session; tracking ids
+     * rather than a count makes repeats harmless.
+     */
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        UUID userId = userId(event.getUser());
+        if (userId == null) {
+            return;
+        }
+        synchronized (lockFor(userId)) {
+            Set<String> sessions = localSessions.get(userId);
+            if (sessions != null && sessions.remove(event.getSessionId()) && sessions.isEmpty()) {
+                localSessions.remove(userId);
+                listenerContainer.removeMessageListener(this, topic(userId));
+            }
+        }
+    }
+
+    private Object lockFor(UUID userId) {
+        return subscriptionLocks[Math.floorMod(userId.hashCode(), subscriptionLocks.length)];
+    }
+
+    private static ChannelTopic topic(UUID userId) {
+        return new ChannelTopic(CHANNEL_PREFIX + userId);
+    }
+
+    private static UUID userId(Principal user) {
+        if (user == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(user.getName());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
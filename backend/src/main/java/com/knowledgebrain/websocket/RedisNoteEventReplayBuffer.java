@@ -0,0 +1,121 @@
+package com.knowledgebrain.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.knowledgebrain.dto.websocket.NoteEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Replay rings shared by all nodes. Sequence, epoch and ring are updated by one
+ * script so every node numbers a user's events from the same counter. All three
+ * keys share a TTL refreshed on each append; when they expire together the next
+ * event starts a new epoch.
+ */
+@Component
+@ConditionalOnProperty(name = "app.websocket.replay.store", havingValue = "redis")
+@Slf4j
+public class RedisNoteEventReplayBuffer implements NoteEventReplayBuffer {
+
+    private static final String KEY_PREFIX = "notes:events:";
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> APPEND = new DefaultRedisScript<>("""
+            local epoch = redis.call('GET', KEYS[1])
+            if not epoch then
+                epoch = ARGV[3]
+                redis.call('SET', KEYS[1], epoch)
+                redis.call('DEL', KEYS[2], KEYS[3])
+            end
+            local seq = redis.call('INCR', KEYS[2])
+            redis.call('RPUSH', KEYS[3], seq .. '|' .. ARGV[1])
+            redis.call('LTRIM', KEYS[3], -tonumber(ARGV[2]), -1)
+            redis.call('EXPIRE', KEYS[1], ARGV[4])
+            redis.call('EXPIRE', KEYS[2], ARGV[4])
+            redis.call('EXPIRE', KEYS[3], ARGV[4])
+            return {epoch, tostring(seq)}
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final int capacity;
+    private final Duration ttl;
+
+    public RedisNoteEventReplayBuffer(StringRedisTemplate redisTemplate,
+                                      ObjectMapper objectMapper,
+                                      @Value("${app.websocket.replay.capacity:256}") int capacity,
+                                      @Value("${app.websocket.replay.ttl:1h}") Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.capacity = capacity;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public NoteEvent append(UUID userId, NoteEvent event) {
+        try {
+            List<?> position = redisTemplate.execute(APPEND, keys(userId),
+                    objectMapper.writeValueAsString(event),
+                    String.valueOf(capacity),
+                    UUID.randomUUID().toString(),
+                    String.valueOf(ttl.toSeconds()));
+            event.setEpoch((String) position.get(0));
+            event.setSeq(Long.parseLong((String) position.get(1)));
+        } catch (Exception e) {
+            // Unsequenced events are still delivered; clients resync on their next gap check.
+            log.error("Failed to record note event for user {}: {}", userId, e.getMessage(), e);
+        }
+        return event;
+    }
+
+    @Override
+    public NoteEvent replay(UUID userId, String epoch, long afterSeq) {
+        List<String> keys = keys(userId);
+        String currentEpoch = redisTemplate.opsForValue().get(keys.get(0));
+        String currentSeq = redisTemplate.opsForValue().get(keys.get(1));
+        List<String> entries = redisTemplate.opsForList().range(keys.get(2), 0, -1);
+        long seq = currentSeq != null ? Long.parseLong(currentSeq) : 0L;
+
+        if (currentEpoch == null || !currentEpoch.equals(epoch) || entries == null || afterSeq > seq) {
+            return NoteEvent.resync(currentEpoch, seq);
+        }
+        List<NoteEvent> missed = new ArrayList<>();
+        long oldest = seq + 1;
+        for (String entry : entries) {
+            int separator = entry.indexOf('|');
+            long entrySeq = Long.parseLong(entry.substring(0, separator));
+            oldest = Math.min(oldest, entrySeq);
+            if (entrySeq > afterSeq) {
+                try {
+                    NoteEvent event = objectMapper.readValue(entry.substring(separator + 1), NoteEvent.class);
+                    event.setSeq(entrySeq);
+                    event.setEpoch(currentEpoch);
+                    missed.add(event);
+                } catch (Exception e) {
+                    log.error("Failed to read buffered note event for user {}: {}", userId, e.getMessage(), e);
+                    return NoteEvent.resync(currentEpoch, seq);
+                }
+            }
+        }
+        if (afterSeq < oldest - 1) {
+            return NoteEvent.resync(currentEpoch, seq);
+        }
+        return NoteEvent.replay(missed);
+    }
+
+    private static List<String> keys(UUID userId) {
+        return List.of(
+                KEY_PREFIX + "epoch:" + userId,
+                KEY_PREFIX + "seq:" + userId,
+                KEY_PREFIX + "ring:" + userId);
+    }
+}
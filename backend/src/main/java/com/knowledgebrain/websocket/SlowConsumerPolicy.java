@@ -0,0 +1,14 @@
+package com.knowledgebrain.websocket;
+
+/**
+ * What to do with a STOMP session whose undelivered outbound messages exceed
+ * {@code app.websocket.backpressure.max-queued-messages}.
+ */
+public enum SlowConsumerPolicy {
+    /** Drop new messages until the session catches up. */
+    DROP,
+    /** Replace the overflow with a single RESYNC event, then drop until it catches up. */
+    RESYNC,
+    /** Close the session; the client reconnects and replays what it missed. */
+    DISCONNECT
+}
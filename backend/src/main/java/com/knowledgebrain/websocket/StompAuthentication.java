@@ -0,0 +1,23 @@
+package com.knowledgebrain.websocket;
+
+import com.knowledgebrain.security.UserPrincipal;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+/**
+ * Authentication attached to a STOMP session. Its name is the user id, which is
+ * what the user registry keys sessions by and what events are addressed to
+ * ({@code convertAndSendToUser(userId, ...)}); the default would be the email.
+ */
+public class StompAuthentication extends UsernamePasswordAuthenticationToken {
+
+    private static final long serialVersionUID = 1L;
+
+    public StompAuthentication(UserPrincipal principal) {
+        super(principal, null, principal.getAuthorities());
+    }
+
+    @Override
+    public String getName() {
+        return ((UserPrincipal) getPrincipal()).getId().toString();
+    }
+}
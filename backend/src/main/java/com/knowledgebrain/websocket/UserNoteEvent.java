@@ -0,0 +1,13 @@
+package com.knowledgebrain.websocket;
+
+import com.knowledgebrain.dto.websocket.NoteEvent;
+
+import java.util.UUID;
+
+/**
+ * Application event carrying a note event for one user's WebSocket sessions.
+ * Raised inside the writing transaction; delivered by {@link NoteEventDispatcher}
+ * only once that transaction commits.
+ */
+public record UserNoteEvent(UUID userId, NoteEvent event) {
+}
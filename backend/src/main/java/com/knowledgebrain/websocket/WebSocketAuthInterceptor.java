@@ -1,29 +1,70 @@
 package com.knowledgebrain.websocket;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.knowledgebrain.ratelimit.TokenBucket;
+import com.knowledgebrain.security.AccessTokenRevocations;
 import com.knowledgebrain.security.JwtUtil;
 import com.knowledgebrain.security.UserPrincipal;
-import lombok.RequiredArgsConstructor;
+import com.knowledgebrain.security.VerifiedToken;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 
-import java.util.Collections;
-import java.util.UUID;
-
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Authenticates STOMP CONNECT frames. The token is verified once and the principal
+ * is built from its claims, so CONNECT never touches the database; verified tokens
+ * are cached until they expire (at most {@code app.websocket.connect.principal-cache-ttl}),
+ * which makes a reconnect with the same token a map lookup.
+ * <p>
+ * CONNECTs carrying a valid token then pass a global token bucket. Over the limit
+ * the frame is rejected with a retry hint, so a post-deploy reconnect storm is
+ * spread over time instead of being served all at once. Unauthenticated CONNECTs
+ * are rejected before the bucket and never consume it.
+ */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class WebSocketAuthInterceptor implements ChannelInterceptor {
 
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final AccessTokenRevocations revocations;
+    private final TokenBucket connectAdmission;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+    private final Counter rejected;
+
+    public WebSocketAuthInterceptor(JwtUtil jwtUtil,
+                                    AccessTokenRevocations revocations,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.websocket.connect.rate-per-second:200}") double connectRate,
+                                    @Value("${app.websocket.connect.burst:400}") int connectBurst,
+                                    @Value("${app.websocket.connect.principal-cache-ttl:5m}") Duration cacheTtl,
+                                    @Value("${app.websocket.connect.principal-cache-size:50000}") long cacheSize) {
+        this.jwtUtil = jwtUtil;
+        this.revocations = revocations;
+        this.connectAdmission = new TokenBucket(connectRate, connectBurst);
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(Expiry.creating((String token, VerifiedToken verified) -> {
+                    Duration untilExpiry = Duration.between(Instant.now(), verified.expiresAt());
+                    return untilExpiry.compareTo(cacheTtl) < 0 ? untilExpiry : cacheTtl;
+                }))
+                .build();
+        this.rejected = Counter.builder("websocket.connect.rejected")
+                .description("STOMP CONNECTs rejected by admission control")
+                .register(meterRegistry);
+    }
 
     @Override
     public Message<?> preSend(Message<?> message, MessageChannel channel) {
@@ -39,21 +80,34 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
             throw new IllegalArgumentException("Missing authentication token");
         }
 
-        if (!jwtUtil.validateToken(token)) {
-            log.warn("WebSocket CONNECT with invalid token");
+        VerifiedToken verified = verifiedTokens.getIfPresent(token);
+        if (verified == null || !verified.expiresAt().isAfter(Instant.now())) {
+            verified = jwtUtil.verify(token).orElse(null);
+            if (verified == null) {
+                log.warn("WebSocket CONNECT with invalid token");
+                throw new IllegalArgumentException("Invalid authentication token");
+            }
+            verifiedTokens.put(token, verified);
+        }
+        // Checked on every CONNECT, cached or not, so a revocation is not masked by the cache
+        if (revocations.isRevoked(verified)) {
+            verifiedTokens.invalidate(token);
+            log.warn("WebSocket CONNECT with revoked token for user {}", verified.principal().getId());
             throw new IllegalArgumentException("Invalid authentication token");
         }
 
-        UUID userId = jwtUtil.getUserIdFromToken(token);
-        String email = jwtUtil.getEmailFromToken(token);
-
-        UserPrincipal principal = (UserPrincipal) userDetailsService.loadUserByUsername(email);
-
-        UsernamePasswordAuthenticationToken auth =
-                new UsernamePasswordAuthenticationToken(principal, null, Collections.emptyList());
+        // Only authenticated CONNECTs draw from the bucket, so tokenless or forged
+        // CONNECTs cannot exhaust it and lock real users out
+        Duration wait = connectAdmission.tryAcquire();
+        if (!wait.isZero()) {
+            rejected.increment();
+            log.debug("WebSocket CONNECT rejected by admission control, retry in {} ms", wait.toMillis());
+            throw new IllegalStateException("Server busy, retry after " + Math.max(1, wait.toMillis()) + " ms");
+        }
 
-        accessor.setUser(auth);
-        log.info("WebSocket authenticated for user {}", userId);
+        UserPrincipal principal = verified.principal();
+        accessor.setUser(new StompAuthentication(principal));
+        log.info("WebSocket authenticated for user {}", principal.getId());
 
         return message;
     }
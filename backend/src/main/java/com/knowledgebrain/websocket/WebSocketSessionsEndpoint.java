@@ -0,0 +1,65 @@
+package com.knowledgebrain.websocket;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.messaging.simp.user.SimpSession;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /actuator/websocketsessions}: backpressure settings and the outbound
+ * queue depth of each connected session, deepest first.
+ * <p>
+ * Lists session and user ids of everyone connected, so it is not in the default
+ * web exposure: the actuator shares the API's authentication, under which any
+ * tenant could read it. Expose it only on an internal management port.
+ */
+@Component
+@Endpoint(id = "websocketsessions")
+@RequiredArgsConstructor
+public class WebSocketSessionsEndpoint {
+
+    private static final int MAX_SESSIONS_LISTED = 200;
+
+    private final OutboundBackpressure backpressure;
+    private final SimpUserRegistry userRegistry;
+
+    public record SessionView(String sessionId, String userId, Instant connectedAt, int queued, long dropped) {
+    }
+
+    @ReadOperation
+    public Map<String, Object> sessions() {
+        Map<String, String> users = new HashMap<>();
+        userRegistry.getUsers().forEach(user -> {
+            for (SimpSession session : user.getSessions()) {
+                users.put(session.getId(), user.getName());
+            }
+        });
+
+        List<SessionView> views = backpressure.sessions().stream()
+                .map(state -> new SessionView(
+                        state.getSessionId(),
+                        users.get(state.getSessionId()),
+                        state.getConnectedAt(),
+                        state.getQueued().get(),
+                        state.getDropped().get()))
+                .sorted(Comparator.comparingInt(SessionView::queued).reversed())
+                .limit(MAX_SESSIONS_LISTED)
+                .toList();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("policy", backpressure.getPolicy());
+        result.put("maxQueuedMessages", backpressure.getMaxQueuedMessages());
+        result.put("sessionCount", backpressure.sessions().size());
+        result.put("sessions", views);
+        return result;
+    }
+}
@@ -0,0 +1,6 @@
+-- V10__drop_redundant_refresh_token_index.sql
+-- Drop the duplicate index on refresh_tokens.token
+
+-- 1. uq_refresh_tokens_token (V3) already maintains a unique btree on token;
+--    idx_refresh_tokens_token only doubled the write cost of every issue and rotation
+DROP INDEX IF EXISTS idx_refresh_tokens_token;
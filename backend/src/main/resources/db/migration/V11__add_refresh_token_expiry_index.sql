@@ -0,0 +1,6 @@
+-- V11__add_refresh_token_expiry_index.sql
+-- Lets the background purge find expired and old revoked tokens without a full scan
+
+-- 1. Revoked tokens are purged by expiry too (expires_at = created_at + token lifetime),
+--    so one index serves both conditions and rotations stay HOT-update eligible
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
@@ -0,0 +1,11 @@
+-- V12__add_refresh_token_revoked_at.sql
+-- Record when a refresh token was revoked so purge retention counts from revocation, not issue
+
+-- 1. Revocation time, set by rotation and revoke-all
+ALTER TABLE refresh_tokens ADD COLUMN revoked_at TIMESTAMP WITH TIME ZONE;
+
+-- 2. Tokens revoked before this column existed get the full retention from now
+UPDATE refresh_tokens SET revoked_at = now() WHERE revoked AND revoked_at IS NULL;
+
+-- 3. Lets the purge find revoked tokens past retention without a scan
+CREATE INDEX idx_refresh_tokens_revoked_at ON refresh_tokens (revoked_at) WHERE revoked_at IS NOT NULL;
@@ -0,0 +1,31 @@
+-- V6__add_user_note_stats.sql
+-- Per-user note counters maintained by trigger, so listings never need count(*)
+
+-- 1. One counter row per user with notes
+CREATE TABLE user_note_stats (
+    user_id     UUID PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    note_count  BIGINT NOT NULL DEFAULT 0
+);
+
+-- 2. Backfill from existing notes
+INSERT INTO user_note_stats (user_id, note_count)
+SELECT user_id, count(*) FROM notes GROUP BY user_id;
+
+-- 3. Keep counters in step with inserts and deletes, in the same transaction
+CREATE OR REPLACE FUNCTION user_note_stats_update() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO user_note_stats (user_id, note_count) VALUES (NEW.user_id, 1)
+        ON CONFLICT (user_id) DO UPDATE SET note_count = user_note_stats.note_count + 1;
+        RETURN NEW;
+    END IF;
+
+    UPDATE user_note_stats SET note_count = note_count - 1 WHERE user_id = OLD.user_id;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_user_note_stats_update
+    AFTER INSERT OR DELETE ON notes
+    FOR EACH ROW
+    EXECUTE FUNCTION user_note_stats_update();
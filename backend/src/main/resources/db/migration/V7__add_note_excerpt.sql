@@ -0,0 +1,21 @@
+-- V7__add_note_excerpt.sql
+-- Stored plain-text excerpt so list views can skip loading full note content
+
+-- 1. Excerpt column (first 200 characters, whitespace collapsed)
+ALTER TABLE notes ADD COLUMN excerpt VARCHAR(200);
+
+-- 2. Backfill existing rows
+UPDATE notes SET excerpt = left(btrim(regexp_replace(coalesce(content, ''), '\s+', ' ', 'g')), 200);
+
+-- 3. Trigger function to keep the excerpt in step with content
+CREATE OR REPLACE FUNCTION notes_excerpt_update() RETURNS trigger AS $$
+BEGIN
+    NEW.excerpt := left(btrim(regexp_replace(coalesce(NEW.content, ''), '\s+', ' ', 'g')), 200);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_notes_excerpt_update
+    BEFORE INSERT OR UPDATE OF content ON notes
+    FOR EACH ROW
+    EXECUTE FUNCTION notes_excerpt_update();
@@ -0,0 +1,34 @@
+-- V8__add_note_list_version.sql
+-- Per-user list version for conditional GETs: bumped on every insert, update and delete
+
+-- 1. Version column on the existing per-user stats row
+ALTER TABLE user_note_stats ADD COLUMN list_version BIGINT NOT NULL DEFAULT 0;
+
+-- 2. Counter trigger now also versions every change to the user's notes
+CREATE OR REPLACE FUNCTION user_note_stats_update() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO user_note_stats (user_id, note_count, list_version) VALUES (NEW.user_id, 1, 1)
+        ON CONFLICT (user_id) DO UPDATE
+            SET note_count = user_note_stats.note_count + 1,
+                list_version = user_note_stats.list_version + 1;
+        RETURN NEW;
+    ELSIF TG_OP = 'UPDATE' THEN
+        UPDATE user_note_stats SET list_version = list_version + 1 WHERE user_id = NEW.user_id;
+        RETURN NEW;
+    END IF;
+
+    UPDATE user_note_stats
+    SET note_count = note_count - 1,
+        list_version = list_version + 1
+    WHERE user_id = OLD.user_id;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER trg_user_note_stats_update ON notes;
+
+CREATE TRIGGER trg_user_note_stats_update
+    AFTER INSERT OR UPDATE OR DELETE ON notes
+    FOR EACH ROW
+    EXECUTE FUNCTION user_note_stats_update();
@@ -0,0 +1,61 @@
+-- V9__add_note_change_feed.sql
+-- Change feed for delta sync: tombstoned deletes plus a per-row change position
+
+-- 1. Tombstones: deletes set deleted_at instead of removing the row
+ALTER TABLE notes ADD COLUMN deleted_at TIMESTAMP WITH TIME ZONE;
+
+-- 2. Change position: the 64-bit id of the transaction that last wrote the row.
+--    Feeds only return rows whose transaction is older than the snapshot xmin, i.e.
+--    already finished, so a slow transaction can never commit "behind" a sync token.
+ALTER TABLE notes ADD COLUMN change_xid xid8 NOT NULL DEFAULT pg_current_xact_id();
+
+CREATE INDEX idx_notes_user_id_change ON notes (user_id, change_xid, id);
+
+-- 3. Stamp every insert and update with the writing transaction
+CREATE OR REPLACE FUNCTION notes_change_xid_update() RETURNS trigger AS $$
+BEGIN
+    NEW.change_xid := pg_current_xact_id();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_notes_change_xid_update
+    BEFORE INSERT OR UPDATE ON notes
+    FOR EACH ROW
+    EXECUTE FUNCTION notes_change_xid_update();
+
+-- 4. Counters: a tombstone counts as a delete; hard deletes of tombstones do not count twice
+CREATE OR REPLACE FUNCTION user_note_stats_update() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO user_note_stats (user_id, note_count, list_version) VALUES (NEW.user_id, 1, 1)
+        ON CONFLICT (user_id) DO UPDATE
+            SET note_count = user_note_stats.note_count + 1,
+                list_version = user_note_stats.list_version + 1;
+        RETURN NEW;
+    ELSIF TG_OP = 'UPDATE' THEN
+        UPDATE user_note_stats
+        SET note_count = note_count
+                - CASE WHEN OLD.deleted_at IS NULL AND NEW.deleted_at IS NOT NULL THEN 1 ELSE 0 END,
+            list_version = list_version + 1
+        WHERE user_id = NEW.user_id;
+        RETURN NEW;
+    END IF;
+
+    IF OLD.deleted_at IS NULL THEN
+        UPDATE user_note_stats
+        SET note_count = note_count - 1,
+            list_version = list_version + 1
+        WHERE user_id = OLD.user_id;
+    END IF;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+-- 5. Tombstone purge horizon: the highest change_xid among the user's purged
+--    tombstones. A sync token at or below it may have missed a delete that no
+--    longer exists, so it must resync.
+ALTER TABLE user_note_stats ADD COLUMN purged_xid BIGINT NOT NULL DEFAULT 0;
+
+-- 6. Lets the purge find tombstones past retention without a scan
+CREATE INDEX idx_notes_deleted_at ON notes (deleted_at) WHERE deleted_at IS NOT NULL;
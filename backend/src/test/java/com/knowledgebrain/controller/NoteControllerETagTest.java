@@ -0,0 +1,82 @@
+package com.knowledgebrain.controller;
+
+import com.knowledgebrain.dto.PagedResponse;
+import com.knowledgebrain.dto.note.NoteResponse;
+import com.knowledgebrain.security.UserPrincipal;
+import com.knowledgebrain.service.NoteService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * List revalidation across users sharing a browser: list versions are per-user
+ * counters, so two users can sit at the same version.
+ */
+class NoteControllerETagTest {
+
+    private static final long SHARED_LIST_VERSION = 7L;
+
+    private NoteController controller;
+    private UserPrincipal alice;
+    private UserPrincipal bob;
+
+    @BeforeEach
+    void setUp() {
+        NoteService noteService = mock(NoteService.class);
+        when(noteService.getListVersion(any())).thenReturn(SHARED_LIST_VERSION);
+        when(noteService.getNotes(any(), anyInt(), anyInt(), any(), anyLong())).thenReturn(PagedResponse.empty());
+        controller = new NoteController(noteService);
+        alice = new UserPrincipal(UUID.randomUUID(), "alice@example.com", "Alice");
+        bob = new UserPrincipal(UUID.randomUUID(), "bob@example.com", "Bob");
+    }
+
+    @Test
+    void sameUserRevalidatesWithNotModified() {
+        String etag = list(alice, null).getHeaders().getETag();
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ResponseEntity<PagedResponse<NoteResponse>> revalidated = list(alice, etag, response);
+
+        assertThat(revalidated).isNull();
+        assertThat(response.getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    void anotherUserAtTheSameListVersionDoesNotMatch() {
+        String alicesEtag = list(alice, null).getHeaders().getETag();
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ResponseEntity<PagedResponse<NoteResponse>> bobsList = list(bob, alicesEtag, response);
+
+        assertThat(bobsList).isNotNull();
+        assertThat(bobsList.getStatusCode().value()).isEqualTo(200);
+        assertThat(bobsList.getHeaders().getETag()).isNotEqualTo(alicesEtag);
+        assertThat(response.getStatus()).isNotEqualTo(304);
+    }
+
+    private ResponseEntity<PagedResponse<NoteResponse>> list(UserPrincipal principal, String ifNoneMatch) {
+        return list(principal, ifNoneMatch, new MockHttpServletResponse());
+    }
+
+    private ResponseEntity<PagedResponse<NoteResponse>> list(UserPrincipal principal, String ifNoneMatch,
+                                                             MockHttpServletResponse response) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/notes");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return controller.getNotes(principal, 0, 20, null, new ServletWebRequest(request, response));
+    }
+}
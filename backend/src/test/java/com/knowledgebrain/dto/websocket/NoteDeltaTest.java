@@ -0,0 +1,102 @@
+package com.knowledgebrain.dto.websocket;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NoteDeltaTest {
+
+    private static final Instant BASE = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Test
+    void splicesOnlyTheChangedRegion() {
+        NoteDelta delta = NoteDelta.between("hello brave world", "hello new world", BASE);
+
+        assertThat(delta.getStart()).isEqualTo(6);
+        assertThat(delta.getDeleteCount()).isEqualTo(5);
+        assertThat(delta.getInsert()).isEqualTo("new");
+        assertThat(delta.getBaseUpdatedAt()).isEqualTo(BASE);
+        assertThat(apply("hello brave world", delta)).isEqualTo("hello new world");
+    }
+
+    @Test
+    void equalTextsGiveAnEmptySplice() {
+        NoteDelta delta = NoteDelta.between("same", "same", BASE);
+
+        assertThat(delta.getDeleteCount()).isZero();
+        assertThat(delta.getInsert()).isEmpty();
+    }
+
+    @Test
+    void handlesEditsAtEitherEnd() {
+        assertRoundTrip("body", "body appended");
+        assertRoundTrip("body", "prepended body");
+        assertRoundTrip("body", "");
+        assertRoundTrip("", "body");
+    }
+
+    @Test
+    void prefixAndSuffixNeverOverlapOnRepeatedText() {
+        NoteDelta delta = NoteDelta.between("aaa", "aaaa", BASE);
+
+        assertThat(delta.getStart() + delta.getDeleteCount()).isLessThanOrEqualTo(3);
+        assertThat(apply("aaa", delta)).isEqualTo("aaaa");
+    }
+
+    @Test
+    void prefixDoesNotSplitASurrogatePair() {
+        // U+1F600 and U+1F601 share their high surrogate.
+        NoteDelta delta = NoteDelta.between("a😀b", "a😁b", BASE);
+
+        assertThat(delta.getStart()).isEqualTo(1);
+        assertThat(delta.getDeleteCount()).isEqualTo(2);
+        assertThat(delta.getInsert()).isEqualTo("😁");
+    }
+
+    @Test
+    void suffixDoesNotSplitASurrogatePair() {
+        // U+1F600 and U+1F200 share their low surrogate.
+        NoteDelta delta = NoteDelta.between("a😀", "a🈀", BASE);
+
+        assertThat(delta.getStart()).isEqualTo(1);
+        assertThat(delta.getDeleteCount()).isEqualTo(2);
+        assertThat(delta.getInsert()).isEqualTo("🈀");
+    }
+
+    @Test
+    void insertNextToAnEmojiKeepsItWhole() {
+        assertRoundTrip("x😀y", "x😀😀y");
+        assertRoundTrip("😀", "😀!");
+        assertRoundTrip("😀", "!😀");
+    }
+
+    private static void assertRoundTrip(String before, String after) {
+        NoteDelta delta = NoteDelta.between(before, after, BASE);
+
+        assertThat(apply(before, delta)).isEqualTo(after);
+        assertThat(isWellFormed(delta.getInsert())).isTrue();
+    }
+
+    private static String apply(String base, NoteDelta delta) {
+        return base.substring(0, delta.getStart())
+                + delta.getInsert()
+                + base.substring(delta.getStart() + delta.getDeleteCount());
+    }
+
+    private static boolean isWellFormed(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isHighSurrogate(c)) {
+                if (i + 1 >= text.length() || !Character.isLowSurrogate(text.charAt(i + 1))) {
+                    return false;
+                }
+                i++;
+            } else if (Character.isLowSurrogate(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,33 @@
+package com.knowledgebrain.entity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NoteTest {
+
+    @Test
+    void excerptCollapsesAndTrimsWhitespace() {
+        assertThat(Note.excerptOf("  Hello\n\n\tworld  ")).isEqualTo("Hello world");
+    }
+
+    @Test
+    void excerptCollapsesUnicodeWhitespaceLikeTheTrigger() {
+        assertThat(Note.excerptOf("\u00A0Hello\u2028\u00A0world\u3000")).isEqualTo("Hello world");
+    }
+
+    @Test
+    void excerptOfMissingContentIsEmpty() {
+        assertThat(Note.excerptOf(null)).isEmpty();
+        assertThat(Note.excerptOf(" \n ")).isEmpty();
+    }
+
+    @Test
+    void excerptCutsAtTwoHundredCharactersWithoutSplittingSurrogatePairs() {
+        String emoji = "😀";
+        String excerpt = Note.excerptOf(emoji.repeat(250));
+
+        assertThat(excerpt.codePointCount(0, excerpt.length())).isEqualTo(200);
+        assertThat(excerpt).isEqualTo(emoji.repeat(200));
+    }
+}
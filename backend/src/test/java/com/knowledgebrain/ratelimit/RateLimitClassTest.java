@@ -0,0 +1,47 @@
+package com.knowledgebrain.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitClassTest {
+
+    @Test
+    void authEndpointsAreLimitedPerClient() {
+        assertThat(classOf("/api/auth/login")).isEqualTo(RateLimitClass.AUTH);
+        assertThat(classOf("/api/auth/register")).isEqualTo(RateLimitClass.AUTH);
+        assertThat(classOf("/api/auth/refresh")).isEqualTo(RateLimitClass.AUTH);
+    }
+
+    @Test
+    void searchHasItsOwnClass() {
+        assertThat(classOf("/api/notes/search")).isEqualTo(RateLimitClass.SEARCH);
+    }
+
+    @Test
+    void otherApiEndpointsFallUnderApi() {
+        assertThat(classOf("/api/notes")).isEqualTo(RateLimitClass.API);
+        assertThat(classOf("/api/notes/changes")).isEqualTo(RateLimitClass.API);
+        assertThat(classOf("/api/auth/logout")).isEqualTo(RateLimitClass.API);
+    }
+
+    @Test
+    void healthActuatorAndHandshakesAreNotLimited() {
+        assertThat(classOf("/api/health")).isNull();
+        assertThat(classOf("/actuator/health")).isNull();
+        assertThat(classOf("/ws")).isNull();
+    }
+
+    @Test
+    void keysAreLowerCaseNames() {
+        assertThat(RateLimitClass.AUTH.key()).isEqualTo("auth");
+        assertThat(RateLimitClass.SEARCH.key()).isEqualTo("search");
+    }
+
+    private static RateLimitClass classOf(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        return RateLimitClass.of(request);
+    }
+}
@@ -0,0 +1,61 @@
+package com.knowledgebrain.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenBucketTest {
+
+    @Test
+    void admitsAFullBurstThenRejectsWithAWait() {
+        TokenBucket bucket = new TokenBucket(1, 5);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire()).isEqualTo(Duration.ZERO);
+        }
+        Duration wait = bucket.tryAcquire();
+        assertThat(wait).isPositive().isLessThanOrEqualTo(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void refillsAtTheConfiguredRate() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(100, 1);
+
+        assertThat(bucket.tryAcquire()).isEqualTo(Duration.ZERO);
+        Duration wait = bucket.tryAcquire();
+        assertThat(wait).isPositive().isLessThanOrEqualTo(Duration.ofMillis(10));
+
+        Thread.sleep(wait.toMillis() + 5);
+        assertThat(bucket.tryAcquire()).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    void rejectionsDoNotConsumeTokens() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(100, 1);
+        assertThat(bucket.tryAcquire()).isEqualTo(Duration.ZERO);
+
+        for (int i = 0; i < 100; i++) {
+            bucket.tryAcquire();
+        }
+        Thread.sleep(15);
+        assertThat(bucket.tryAcquire()).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    void requestsLargerThanTheBurstAreNeverAdmitted() {
+        TokenBucket bucket = new TokenBucket(1000, 3);
+
+        assertThat(bucket.tryAcquire(4)).isPositive();
+        assertThat(bucket.tryAcquire(3)).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    void rejectsNonPositiveSettings() {
+        assertThatThrownBy(() -> new TokenBucket(0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucket(-1, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucket(1, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,100 @@
+package com.knowledgebrain.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AccessTokenRevocationsTest {
+
+    private static final Duration ACCESS_TOKEN_EXPIRATION = Duration.ofMinutes(15);
+
+    private ZSetOperations<String, String> zSet;
+    private AccessTokenRevocations revocations;
+    private JwtUtil jwtUtil;
+    private UUID userId;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        zSet = mock(ZSetOperations.class);
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSet);
+        revocations = new AccessTokenRevocations(redisTemplate, mock(RedisMessageListenerContainer.class),
+                new SimpleMeterRegistry(), ACCESS_TOKEN_EXPIRATION);
+
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "test-secret-key-that-is-long-enough-for-hs256");
+        ReflectionTestUtils.setField(jwtUtil, "accessTokenExpiration", ACCESS_TOKEN_EXPIRATION);
+        jwtUtil.init();
+
+        userId = UUID.randomUUID();
+    }
+
+    @Test
+    void loginRightAfterLogoutIsAccepted() throws InterruptedException {
+        VerifiedToken beforeLogout = issue();
+        Thread.sleep(2);
+        revocations.revoke(userId);
+        Thread.sleep(2);
+        VerifiedToken afterLogin = issue();
+
+        assertThat(revocations.isRevoked(beforeLogout)).isTrue();
+        assertThat(revocations.isRevoked(afterLogin)).isFalse();
+    }
+
+    @Test
+    void revokesUpToTheMillisecondOfTheRevocation() {
+        revocations.revoke(userId);
+        ArgumentCaptor<Double> score = ArgumentCaptor.forClass(Double.class);
+        verify(zSet).add(eq("auth:revocations:ms"), anyString(), score.capture());
+        long epochMilli = score.getValue().longValue();
+
+        assertThat(revocations.isRevoked(issuedAt(Instant.ofEpochMilli(epochMilli)))).isTrue();
+        assertThat(revocations.isRevoked(issuedAt(Instant.ofEpochMilli(epochMilli + 1)))).isFalse();
+    }
+
+    @Test
+    void peerRevocationKeepsTokensLaterInTheSameSecond() {
+        Instant epoch = Instant.now().truncatedTo(ChronoUnit.SECONDS).plusMillis(200);
+        revocations.onMessage(new DefaultMessage("kb:auth:revocations:ms".getBytes(StandardCharsets.UTF_8),
+                (userId + ":" + epoch.toEpochMilli()).getBytes(StandardCharsets.UTF_8)), null);
+
+        assertThat(revocations.isRevoked(issuedAt(epoch.minusMillis(100)))).isTrue();
+        assertThat(revocations.isRevoked(issuedAt(epoch.plusMillis(300)))).isFalse();
+    }
+
+    @Test
+    void otherUsersAreUnaffected() {
+        revocations.revoke(UUID.randomUUID());
+
+        assertThat(revocations.isRevoked(issuedAt(Instant.now().minusSeconds(60)))).isFalse();
+    }
+
+    private VerifiedToken issue() {
+        return jwtUtil.verify(jwtUtil.generateAccessToken(userId, "user@example.com", "User")).orElseThrow();
+    }
+
+    private VerifiedToken issuedAt(Instant issuedAt) {
+        return new VerifiedToken(new UserPrincipal(userId, "user@example.com", "User"),
+                issuedAt, issuedAt.plus(ACCESS_TOKEN_EXPIRATION));
+    }
+}
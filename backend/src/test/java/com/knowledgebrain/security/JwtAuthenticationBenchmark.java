@@ -0,0 +1,101 @@
+package com.knowledgebrain.security;
+
+import com.knowledgebrain.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request authentication cost: the previous filter path (validate, then parse
+ * again for the email, each with a freshly built parser, then a user lookup) against
+ * the stateless path (one parse with the shared parser, principal from claims).
+ * <p>
+ * The legacy user lookup is served from an in-memory map, so the numbers isolate
+ * CPU cost; in production it is additionally a database round trip per request.
+ * <p>
+ * Run with: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.knowledgebrain.security.JwtAuthenticationBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-at-least-256-bits-long!!";
+
+    private JwtUtil jwtUtil;
+    private SecretKey signingKey;
+    private Map<String, User> usersByEmail;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "accessTokenExpiration", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(jwtUtil, "refreshTokenExpiration", Duration.ofDays(7));
+        jwtUtil.init();
+        signingKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+
+        User user = User.builder()
+                .id(UUID.randomUUID())
+                .email("bench@example.com")
+                .passwordHash("$2a$10$abcdefghijklmnopqrstuu")
+                .displayName("Bench")
+                .build();
+        usersByEmail = new ConcurrentHashMap<>(Map.of(user.getEmail(), user));
+        token = jwtUtil.generateAccessToken(user.getId(), user.getEmail(), user.getDisplayName());
+    }
+
+    @Benchmark
+    public UserDetails legacyFilterPath() {
+        legacyParse(token);                                              // validateToken
+        String email = legacyParse(token).get("email", String.class);    // getEmailFromToken
+        return new UserPrincipal(usersByEmail.get(email));               // loadUserByUsername
+    }
+
+    @Benchmark
+    public UserDetails statelessFilterPath() {
+        return jwtUtil.parsePrincipal(token).orElseThrow();
+    }
+
+    private Claims legacyParse(String jwt) {
+        return Jwts.parser()
+                .verifyWith(signingKey)
+                .build()
+                .parseSignedClaims(jwt)
+                .getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthenticationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,106 @@
+package com.knowledgebrain.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.jwt.refresh-token-store=redis")
+@ActiveProfiles("test")
+class RedisRefreshTokenStoreTest {
+
+    @Autowired
+    private RefreshTokenStore store;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    private RefreshTokenOwner owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = new RefreshTokenOwner(UUID.randomUUID(), "owner@example.com", "Owner");
+    }
+
+    @Test
+    void usesTheRedisStore() {
+        assertThat(store).isInstanceOf(RedisRefreshTokenStore.class);
+    }
+
+    @Test
+    void storesOnlyTheDigestOfTheToken() {
+        String token = newToken();
+        store.issue(owner, token, expiresIn(Duration.ofMinutes(5)));
+
+        assertThat(redisTemplate.hasKey("auth:refresh:" + token)).isFalse();
+        assertThat(redisTemplate.hasKey("auth:refresh:" + RedisRefreshTokenStore.digest(token))).isTrue();
+        assertThat(redisTemplate.getExpire("auth:refresh:" + RedisRefreshTokenStore.digest(token))).isPositive();
+    }
+
+    @Test
+    void rotateRevokesThePresentedTokenAndIssuesItsSuccessor() {
+        String token = newToken();
+        String successor = newToken();
+        store.issue(owner, token, expiresIn(Duration.ofMinutes(5)));
+
+        assertThat(store.rotate(token, successor, expiresIn(Duration.ofMinutes(5)))).contains(owner);
+        assertThat(store.findRevokedOwner(token)).contains(owner.userId());
+        assertThat(store.findRevokedOwner(successor)).isEmpty();
+    }
+
+    @Test
+    void replayedTokenDoesNotRotateAgain() {
+        String token = newToken();
+        store.issue(owner, token, expiresIn(Duration.ofMinutes(5)));
+        assertThat(store.rotate(token, newToken(), expiresIn(Duration.ofMinutes(5)))).isPresent();
+
+        assertThat(store.rotate(token, newToken(), expiresIn(Duration.ofMinutes(5)))).isEmpty();
+        assertThat(store.findRevokedOwner(token)).contains(owner.userId());
+    }
+
+    @Test
+    void unknownTokensNeitherRotateNorCountAsReplays() {
+        String token = newToken();
+
+        assertThat(store.rotate(token, newToken(), expiresIn(Duration.ofMinutes(5)))).isEmpty();
+        assertThat(store.findRevokedOwner(token)).isEmpty();
+    }
+
+    @Test
+    void revokeAllRevokesEveryUsableTokenOfTheUserOnly() {
+        String first = newToken();
+        String second = newToken();
+        String rotated = newToken();
+        store.issue(owner, first, expiresIn(Duration.ofMinutes(5)));
+        store.issue(owner, second, expiresIn(Duration.ofMinutes(5)));
+        store.issue(owner, rotated, expiresIn(Duration.ofMinutes(5)));
+        String successor = newToken();
+        store.rotate(rotated, successor, expiresIn(Duration.ofMinutes(5)));
+
+        RefreshTokenOwner other = new RefreshTokenOwner(UUID.randomUUID(), "other@example.com", "Other");
+        String othersToken = newToken();
+        store.issue(other, othersToken, expiresIn(Duration.ofMinutes(5)));
+
+        assertThat(store.revokeAll(owner.userId())).isEqualTo(3);
+        assertThat(store.rotate(first, newToken(), expiresIn(Duration.ofMinutes(5)))).isEmpty();
+        assertThat(store.rotate(successor, newToken(), expiresIn(Duration.ofMinutes(5)))).isEmpty();
+        assertThat(store.revokeAll(owner.userId())).isZero();
+        assertThat(store.rotate(othersToken, newToken(), expiresIn(Duration.ofMinutes(5)))).contains(other);
+    }
+
+    private static String newToken() {
+        return UUID.randomUUID().toString();
+    }
+
+    private static Instant expiresIn(Duration duration) {
+        return Instant.now().plus(duration);
+    }
+}
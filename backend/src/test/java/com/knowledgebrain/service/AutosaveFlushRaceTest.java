@@ -0,0 +1,95 @@
+package com.knowledgebrain.service;
+
+import com.knowledgebrain.dto.note.CreateNoteRequest;
+import com.knowledgebrain.dto.note.UpdateNoteRequest;
+import com.knowledgebrain.entity.User;
+import com.knowledgebrain.repository.NoteRepository;
+import com.knowledgebrain.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Interleavings between the write-behind flusher and explicit saves, driven step by
+ * step: the flusher's read of the buffer and its write are separated by the
+ * competing operation.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AutosaveFlushRaceTest {
+
+    @Autowired
+    private NoteService noteService;
+
+    @Autowired
+    private AutosaveBuffer autosaveBuffer;
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private UUID userId;
+    private UUID noteId;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(User.builder()
+                .email("autosave-" + UUID.randomUUID() + "@example.com")
+                .passwordHash("unused")
+                .displayName("Autosave")
+                .build());
+        userId = user.getId();
+        noteId = noteService.createNote(userId, new CreateNoteRequest("Note", "original")).getId();
+    }
+
+    @Test
+    void flushReadBeforeExplicitSaveDoesNotOverwriteIt() {
+        noteService.updateNote(userId, noteId, new UpdateNoteRequest(null, "autosaved"), true);
+        AutosaveBuffer.Buffered readByFlusher = autosaveBuffer.find(noteId).orElseThrow();
+
+        noteService.updateNote(userId, noteId, new UpdateNoteRequest(null, "saved"), false);
+
+        assertThat(noteService.flushAutosave(noteId, readByFlusher)).isFalse();
+        assertThat(content()).isEqualTo("saved");
+        assertThat(autosaveBuffer.find(noteId)).isEmpty();
+    }
+
+    @Test
+    void changesStagedDuringFlushAreRebasedAndFlushedNext() {
+        noteService.updateNote(userId, noteId, new UpdateNoteRequest(null, "first"), true);
+        AutosaveBuffer.Buffered readByFlusher = autosaveBuffer.find(noteId).orElseThrow();
+
+        noteService.updateNote(userId, noteId, new UpdateNoteRequest(null, "second"), true);
+
+        assertThat(noteService.flushAutosave(noteId, readByFlusher)).isTrue();
+        assertThat(content()).isEqualTo("first");
+
+        AutosaveBuffer.Buffered pending = autosaveBuffer.find(noteId).orElseThrow();
+        assertThat(noteService.flushAutosave(noteId, pending)).isTrue();
+        assertThat(content()).isEqualTo("second");
+        assertThat(autosaveBuffer.find(noteId)).isEmpty();
+    }
+
+    @Test
+    void flushAfterDeleteDropsTheBuffer() {
+        noteService.updateNote(userId, noteId, new UpdateNoteRequest(null, "autosaved"), true);
+        AutosaveBuffer.Buffered readByFlusher = autosaveBuffer.find(noteId).orElseThrow();
+
+        noteService.deleteNote(userId, noteId);
+
+        assertThat(noteService.flushAutosave(noteId, readByFlusher)).isFalse();
+        assertThat(autosaveBuffer.find(noteId)).isEmpty();
+    }
+
+    private String content() {
+        return noteRepository.findByIdAndUserId(noteId, userId).orElseThrow().getContent();
+    }
+}
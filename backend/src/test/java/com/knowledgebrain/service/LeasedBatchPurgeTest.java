@@ -0,0 +1,97 @@
+package com.knowledgebrain.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LeasedBatchPurgeTest {
+
+    private static final String LOCK_KEY = "test:purge:lock";
+
+    private StringRedisTemplate redisTemplate;
+    private ValueOperations<String, String> valueOperations;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void repeatsFullBatchesUntilOneComesBackShort() {
+        leaseAvailable(true);
+        Deque<Integer> batches = new ArrayDeque<>(List.of(10, 10, 3, 10));
+
+        purge(Duration.ofSeconds(5)).run(batches::pop);
+
+        assertThat(batches).containsExactly(10);
+        assertThat(meterRegistry.counter("test.rows.purged").count()).isEqualTo(23);
+        assertThat(meterRegistry.timer("test.rows.purge").count()).isEqualTo(1);
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(LOCK_KEY)), anyString());
+    }
+
+    @Test
+    void stopsAfterTheTimeBudgetEvenWhenBatchesAreFull() {
+        leaseAvailable(true);
+        AtomicInteger calls = new AtomicInteger();
+
+        purge(Duration.ZERO).run(() -> {
+            calls.incrementAndGet();
+            return 10;
+        });
+
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void skipsTheRunWhileAnotherNodeHoldsTheLease() {
+        leaseAvailable(false);
+        AtomicInteger calls = new AtomicInteger();
+
+        purge(Duration.ofSeconds(5)).run(calls::incrementAndGet);
+
+        assertThat(calls).hasValue(0);
+        verify(redisTemplate, never()).execute(any(RedisScript.class), any(List.class), anyString());
+    }
+
+    @Test
+    void releasesTheLeaseWhenABatchFails() {
+        leaseAvailable(true);
+
+        purge(Duration.ofSeconds(5)).run(() -> {
+            throw new IllegalStateException("database unavailable");
+        });
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(LOCK_KEY)), anyString());
+    }
+
+    private void leaseAvailable(boolean available) {
+        when(valueOperations.setIfAbsent(eq(LOCK_KEY), anyString(), any(Duration.class))).thenReturn(available);
+    }
+
+    private LeasedBatchPurge purge(Duration timeBudget) {
+        return new LeasedBatchPurge(redisTemplate, meterRegistry, LOCK_KEY, "test.rows", "test rows", 10, timeBudget);
+    }
+}
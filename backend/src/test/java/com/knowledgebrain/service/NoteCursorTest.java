@@ -0,0 +1,29 @@
+package com.knowledgebrain.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NoteCursorTest {
+
+    @Test
+    void keepsMicrosecondTimestamps() {
+        NoteCursor cursor = new NoteCursor(Instant.parse("2026-03-01T12:34:56.789012Z"), UUID.randomUUID());
+
+        assertThat(NoteCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void rejectsPartsThatAreNotATimestampAndId() {
+        assertThatThrownBy(() -> NoteCursor.decode(OpaqueTokenTest.raw("yesterday|" + UUID.randomUUID())))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> NoteCursor.decode(OpaqueTokenTest.raw(Instant.now() + "|not-a-uuid")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+}
@@ -0,0 +1,55 @@
+package com.knowledgebrain.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OpaqueTokenTest {
+
+    @Test
+    void roundTripsBothParts() {
+        String token = OpaqueToken.encode("head", "tail|with|separators");
+
+        assertThat(OpaqueToken.decode(token, "Invalid", List::of)).containsExactly("head", "tail|with|separators");
+    }
+
+    @Test
+    void encodingIsUrlSafeWithoutPadding() {
+        // Standard base64 of "~~~|???" is "fn5+fD8/Pw=="
+        String token = OpaqueToken.encode("~~~", "???");
+
+        assertThat(token).doesNotContain("+", "/", "=");
+    }
+
+    @Test
+    void rejectsTokensThatAreNotBase64() {
+        assertThatThrownBy(() -> OpaqueToken.decode("not base64!", "Invalid", List::of))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid");
+    }
+
+    @Test
+    void rejectsTokensWithoutSeparator() {
+        assertThatThrownBy(() -> OpaqueToken.decode(raw("no separator"), "Invalid", List::of))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid");
+    }
+
+    @Test
+    void parseFailuresBecomeTheInvalidMessage() {
+        assertThatThrownBy(() -> OpaqueToken.decode(raw("abc|def"), "Invalid",
+                (head, tail) -> Long.parseLong(head)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid")
+                .hasNoCause();
+    }
+
+    static String raw(String text) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
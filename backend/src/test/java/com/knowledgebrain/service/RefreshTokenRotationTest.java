@@ -0,0 +1,135 @@
+package com.knowledgebrain.service;
+
+import com.knowledgebrain.dto.auth.AuthResponse;
+import com.knowledgebrain.entity.User;
+import com.knowledgebrain.repository.UserRepository;
+import com.knowledgebrain.security.AccessTokenRevocations;
+import com.knowledgebrain.security.JpaRefreshTokenStore;
+import com.knowledgebrain.security.JwtUtil;
+import com.knowledgebrain.security.RefreshTokenStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Refresh-token rotation and reuse detection against the refresh_tokens table.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RefreshTokenRotationTest {
+
+    private static final int CONCURRENT_REFRESHES = 8;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private RefreshTokenStore refreshTokenStore;
+
+    @Autowired
+    private AccessTokenRevocations accessTokenRevocations;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .email("rotation-" + UUID.randomUUID() + "@example.com")
+                .passwordHash("unused")
+                .displayName("Rotation")
+                .build());
+    }
+
+    @Test
+    void usesTheJpaStore() {
+        assertThat(refreshTokenStore).isInstanceOf(JpaRefreshTokenStore.class);
+    }
+
+    @Test
+    void concurrentRefreshesOfOneTokenLetExactlyOneThrough() throws Exception {
+        String token = login();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(CONCURRENT_REFRESHES);
+        List<Future<AuthService.RefreshedSession>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < CONCURRENT_REFRESHES; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return authService.refresh(token);
+                }));
+            }
+            start.countDown();
+
+            List<AuthService.RefreshedSession> rotated = new ArrayList<>();
+            int rejected = 0;
+            for (Future<AuthService.RefreshedSession> result : results) {
+                try {
+                    rotated.add(result.get());
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(IllegalArgumentException.class);
+                    rejected++;
+                }
+            }
+
+            assertThat(rotated).hasSize(1);
+            assertThat(rejected).isEqualTo(CONCURRENT_REFRESHES - 1);
+            // The losers presented an already-revoked token, which counts as reuse
+            assertThat(refreshTokenStore.findRevokedOwner(rotated.get(0).refreshToken())).contains(user.getId());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void replayingARotatedTokenRevokesTheWholeFamily() throws InterruptedException {
+        String token = login();
+        AuthService.RefreshedSession session = authService.refresh(token);
+        Thread.sleep(2);
+
+        assertThatThrownBy(() -> authService.refresh(token)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThatThrownBy(() -> authService.refresh(session.refreshToken()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(refreshTokenStore.findRevokedOwner(session.refreshToken())).contains(user.getId());
+        assertThat(accessTokenRevocations.isRevoked(
+                jwtUtil.verify(session.auth().getAccessToken()).orElseThrow())).isTrue();
+    }
+
+    @Test
+    void unknownTokensAreRejectedWithoutRevokingAnything() {
+        String token = login();
+
+        assertThatThrownBy(() -> authService.refresh(UUID.randomUUID().toString()))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(authService.refresh(token).refreshToken()).isNotEqualTo(token);
+    }
+
+    private String login() {
+        return authService.createRefreshToken(AuthResponse.builder()
+                .userId(user.getId())
+                .email(user.getEmail())
+                .displayName(user.getDisplayName())
+                .build());
+    }
+}
@@ -0,0 +1,37 @@
+package com.knowledgebrain.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SyncTokenTest {
+
+    @Test
+    void keepsFullRangeTransactionIds() {
+        SyncToken token = new SyncToken(Long.MAX_VALUE, UUID.randomUUID());
+
+        assertThat(SyncToken.decode(token.encode())).isEqualTo(token);
+        assertThat(SyncToken.decode(SyncToken.START.encode())).isEqualTo(SyncToken.START);
+    }
+
+    @Test
+    void beforeSortsAheadOfEveryIdAtThatXid() {
+        SyncToken before = SyncToken.before(42L);
+
+        assertThat(before.xid()).isEqualTo(42L);
+        assertThat(before.id()).isEqualTo(new UUID(0L, 0L));
+    }
+
+    @Test
+    void rejectsPartsThatAreNotAnXidAndId() {
+        assertThatThrownBy(() -> SyncToken.decode(OpaqueTokenTest.raw("abc|" + UUID.randomUUID())))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid sync token");
+        assertThatThrownBy(() -> SyncToken.decode(OpaqueTokenTest.raw("12345|not-a-uuid")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid sync token");
+    }
+}
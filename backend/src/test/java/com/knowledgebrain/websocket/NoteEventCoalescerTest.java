@@ -0,0 +1,149 @@
+package com.knowledgebrain.websocket;
+
+import com.knowledgebrain.dto.note.NoteResponse;
+import com.knowledgebrain.dto.websocket.NoteEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NoteEventCoalescerTest {
+
+    private final UUID userId = UUID.randomUUID();
+    private final List<NoteEvent> published = new ArrayList<>();
+
+    @Test
+    void sendsOnlyTheLatestUpdateWithinAWindow() {
+        NoteEventCoalescer coalescer = coalescer(true);
+        UUID noteId = UUID.randomUUID();
+
+        coalescer.submit(userId, NoteEvent.updated(note(noteId, "first")));
+        coalescer.submit(userId, NoteEvent.updated(note(noteId, "second")));
+        coalescer.flush();
+
+        assertThat(published).singleElement().satisfies(event -> {
+            assertThat(event.getType()).isEqualTo(NoteEvent.Type.UPDATED);
+            assertThat(event.getNote().getContent()).isEqualTo("second");
+        });
+    }
+
+    @Test
+    void deleteSupersedesAPendingUpdate() {
+        NoteEventCoalescer coalescer = coalescer(true);
+        UUID noteId = UUID.randomUUID();
+
+        coalescer.submit(userId, NoteEvent.updated(note(noteId, "edited")));
+        coalescer.submit(userId, NoteEvent.deleted(noteId));
+        coalescer.flush();
+
+        assertThat(published).extracting(NoteEvent::getType).containsExactly(NoteEvent.Type.DELETED);
+    }
+
+    @Test
+    void concurrentDeleteIsNeverOvertakenByTheFlushedUpdate() throws InterruptedException {
+        NoteEventCoalescer coalescer = coalescer(true);
+
+        for (int i = 0; i < 500; i++) {
+            UUID noteId = UUID.randomUUID();
+            coalescer.submit(userId, NoteEvent.updated(note(noteId, "edited")));
+
+            CountDownLatch start = new CountDownLatch(1);
+            Thread flusher = Thread.ofPlatform().start(() -> {
+                await(start);
+                coalescer.flush();
+            });
+            Thread deleter = Thread.ofPlatform().start(() -> {
+                await(start);
+                coalescer.submit(userId, NoteEvent.deleted(noteId));
+            });
+            start.countDown();
+            flusher.join();
+            deleter.join();
+
+            List<NoteEvent.Type> forNote = eventsFor(noteId);
+            assertThat(forNote).last().isEqualTo(NoteEvent.Type.DELETED);
+        }
+        assertThat(published).extracting(NoteEvent::getSeq).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void largeEditsAreSentAsDeltasWhenFanOutIsNodeLocal() {
+        NoteEventCoalescer coalescer = coalescer(true);
+        UUID noteId = UUID.randomUUID();
+        String body = "x".repeat(2048);
+
+        coalescer.submit(userId, NoteEvent.created(note(noteId, body)));
+        coalescer.submit(userId, NoteEvent.updated(note(noteId, body + "!")));
+        coalescer.flush();
+
+        assertThat(published).extracting(NoteEvent::getType)
+                .containsExactly(NoteEvent.Type.CREATED, NoteEvent.Type.PATCHED);
+    }
+
+    @Test
+    void fullBodiesAreSentWhenFanOutLeavesTheNode() {
+        NoteEventCoalescer coalescer = coalescer(false);
+        UUID noteId = UUID.randomUUID();
+        String body = "x".repeat(2048);
+
+        coalescer.submit(userId, NoteEvent.created(note(noteId, body)));
+        coalescer.submit(userId, NoteEvent.updated(note(noteId, body + "!")));
+        coalescer.flush();
+
+        assertThat(published).extracting(NoteEvent::getType)
+                .containsExactly(NoteEvent.Type.CREATED, NoteEvent.Type.UPDATED);
+        assertThat(published.get(1).getNote().getContent()).isEqualTo(body + "!");
+    }
+
+    private NoteEventCoalescer coalescer(boolean nodeLocal) {
+        NoteEventFanout fanout = new NoteEventFanout() {
+            @Override
+            public void publish(UUID userId, NoteEvent event) {
+                synchronized (published) {
+                    published.add(event);
+                }
+            }
+
+            @Override
+            public boolean isNodeLocal() {
+                return nodeLocal;
+            }
+        };
+        return new NoteEventCoalescer(fanout, new InMemoryNoteEventReplayBuffer(100_000, Duration.ofHours(1)),
+                new SimpleMeterRegistry(), 1024, 32_000_000L);
+    }
+
+    private List<NoteEvent.Type> eventsFor(UUID noteId) {
+        synchronized (published) {
+            return published.stream()
+                    .filter(event -> noteId.equals(event.getNoteId()))
+                    .map(NoteEvent::getType)
+                    .toList();
+        }
+    }
+
+    private NoteResponse note(UUID noteId, String content) {
+        return NoteResponse.builder()
+                .id(noteId)
+                .userId(userId)
+                .title("Note")
+                .content(content)
+                .updatedAt(Instant.now())
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
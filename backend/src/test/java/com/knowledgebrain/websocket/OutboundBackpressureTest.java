@@ -0,0 +1,94 @@
+package com.knowledgebrain.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboundBackpressureTest {
+
+    private static final String SESSION_ID = "s1";
+
+    private OutboundBackpressure backpressure;
+    private WebSocketHandler transport;
+    private WebSocketSession counting;
+    private MessageChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        backpressure = new OutboundBackpressure(new ObjectMapper(), new SimpleMeterRegistry(), 10, SlowConsumerPolicy.DROP);
+        channel = mock(MessageChannel.class);
+        WebSocketHandler delegate = mock(WebSocketHandler.class);
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(SESSION_ID);
+
+        transport = backpressure.decorate(delegate);
+        transport.afterConnectionEstablished(session);
+        ArgumentCaptor<WebSocketSession> captor = ArgumentCaptor.forClass(WebSocketSession.class);
+        verify(delegate).afterConnectionEstablished(captor.capture());
+        counting = captor.getValue();
+    }
+
+    @Test
+    void writtenFrameReleasesTheMessage() throws Exception {
+        backpressure.preSend(message(), channel);
+        backpressure.afterSendCompletion(message(), channel, true, null);
+        assertThat(queued()).isEqualTo(1);
+
+        counting.sendMessage(new TextMessage("MESSAGE\ndestination:/user/queue/notes\n\n{}\u0000"));
+        assertThat(queued()).isZero();
+    }
+
+    @Test
+    void rejectedSendReleasesTheMessage() {
+        Message<?> message = backpressure.preSend(message(), channel);
+        backpressure.afterSendCompletion(message, channel, false, null);
+
+        assertThat(queued()).isZero();
+    }
+
+    @Test
+    void failedSendReleasesTheMessage() {
+        Message<?> message = backpressure.preSend(message(), channel);
+        backpressure.afterSendCompletion(message, channel, false, new IllegalStateException("executor rejected"));
+
+        assertThat(queued()).isZero();
+    }
+
+    @Test
+    void closingTheSessionClearsItsCount() throws Exception {
+        backpressure.preSend(message(), channel);
+        backpressure.preSend(message(), channel);
+        OutboundBackpressure.SessionState state = backpressure.sessions().iterator().next();
+
+        transport.afterConnectionClosed(counting, CloseStatus.GOING_AWAY);
+
+        assertThat(backpressure.sessions()).isEmpty();
+        assertThat(state.getQueued().get()).isZero();
+    }
+
+    private int queued() {
+        return backpressure.sessions().iterator().next().getQueued().get();
+    }
+
+    private static Message<byte[]> message() {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(SESSION_ID);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,91 @@
+package com.knowledgebrain.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class RedisNoteEventFanoutTest {
+
+    private RedisMessageListenerContainer listenerContainer;
+    private RedisNoteEventFanout fanout;
+    private UUID userId;
+    private ChannelTopic topic;
+
+    @BeforeEach
+    void setUp() {
+        listenerContainer = mock(RedisMessageListenerContainer.class);
+        fanout = new RedisNoteEventFanout(mock(StringRedisTemplate.class), listenerContainer,
+                mock(SimpMessagingTemplate.class), new ObjectMapper());
+        userId = UUID.randomUUID();
+        topic = new ChannelTopic("kb:note-events:" + userId);
+    }
+
+    @Test
+    void subscribesOnceWhileAnySessionOfTheUserIsConnected() {
+        fanout.onSessionConnected(connected("tab-1"));
+        fanout.onSessionConnected(connected("tab-2"));
+        verify(listenerContainer, times(1)).addMessageListener(fanout, topic);
+
+        fanout.onSessionDisconnect(disconnected("tab-1"));
+        verify(listenerContainer, never()).removeMessageListener(any(), any(ChannelTopic.class));
+
+        fanout.onSessionDisconnect(disconnected("tab-2"));
+        verify(listenerContainer).removeMessageListener(fanout, topic);
+    }
+
+    @Test
+    void repeatedDisconnectEventsDoNotUnsubscribeOtherTabs() {
+        fanout.onSessionConnected(connected("tab-1"));
+        fanout.onSessionConnected(connected("tab-2"));
+
+        fanout.onSessionDisconnect(disconnected("tab-1"));
+        fanout.onSessionDisconnect(disconnected("tab-1"));
+
+        verify(listenerContainer, never()).removeMessageListener(any(), any(ChannelTopic.class));
+    }
+
+    @Test
+    void resubscribesWhenTheUserReconnects() {
+        fanout.onSessionConnected(connected("tab-1"));
+        fanout.onSessionDisconnect(disconnected("tab-1"));
+        fanout.onSessionConnected(connected("tab-2"));
+
+        verify(listenerContainer, times(2)).addMessageListener(fanout, topic);
+        verify(listenerContainer, times(1)).removeMessageListener(fanout, topic);
+    }
+
+    private SessionConnectedEvent connected(String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+        accessor.setSessionId(sessionId);
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        return new SessionConnectedEvent(this, message, principal());
+    }
+
+    private SessionDisconnectEvent disconnected(String sessionId) {
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], SimpMessageHeaderAccessor.create().getMessageHeaders());
+        return new SessionDisconnectEvent(this, message, sessionId, CloseStatus.NORMAL, principal());
+    }
+
+    private Principal principal() {
+        return userId::toString;
+    }
+}
@@ -13,16 +13,17 @@ export default function DashboardLayout({
   children: React.ReactNode;
 }) {
   const handleNoteEvent = useNoteStore((s) => s.handleNoteEvent);
+  const resync = useNoteStore((s) => s.resync);
   const isAuthenticated = useAuthStore((s) => s.isAuthenticated);
 
   useEffect(() => {
     if (isAuthenticated) {
-      connectWebSocket(handleNoteEvent);
+      connectWebSocket(handleNoteEvent, resync);
     }
     return () => {
       disconnectWebSocket();
     };
-  }, [isAuthenticated, handleNoteEvent]);
+  }, [isAuthenticated, handleNoteEvent, resync]);
 
   return (
     <AuthGuard>
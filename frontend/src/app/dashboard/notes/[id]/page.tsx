@@ -28,6 +28,9 @@ export default function NoteEditorPage() {
   // Track if user has edited to avoid overwriting with stale data
   const initializedRef = useRef(false);
   const saveTimeoutRef = useRef<NodeJS.Timeout | null>(null);
+  // Latest edits and whether any were only autosaved, for the explicit save on leave
+  const latestRef = useRef({ title: "", content: "" });
+  const autosavedRef = useRef(false);
 
   // Fetch note on mount
   useEffect(() => {
@@ -53,9 +56,11 @@ export default function NoteEditorPage() {
         clearTimeout(saveTimeoutRef.current);
       }
       saveTimeoutRef.current = setTimeout(async () => {
+        saveTimeoutRef.current = null;
         setSaving(true);
         try {
-          await updateNote(noteId, newTitle, newContent);
+          await updateNote(noteId, newTitle, newContent, true);
+          autosavedRef.current = true;
           setLastSaved(new Date().toLocaleTimeString());
         } catch {
           // Error in store
@@ -67,26 +72,38 @@ export default function NoteEditorPage() {
     [noteId, updateNote]
   );
 
-  // Clean up timeout on unmount
+  // On unmount, persist buffered autosaves and any pending edit with an explicit save
   useEffect(() => {
     return () => {
+      const pending = saveTimeoutRef.current !== null;
       if (saveTimeoutRef.current) {
         clearTimeout(saveTimeoutRef.current);
       }
+      if (pending || autosavedRef.current) {
+        const { title: t, content: c } = latestRef.current;
+        updateNote(noteId, t, c).catch(() => {});
+      }
     };
-  }, []);
+  }, [noteId, updateNote]);
 
   function handleTitleChange(value: string) {
     setTitle(value);
+    latestRef.current = { title: value, content };
     debouncedSave(value, content);
   }
 
   function handleContentChange(value: string) {
     setContent(value);
+    latestRef.current = { title, content: value };
     debouncedSave(title, value);
   }
 
   async function handleDelete() {
+    if (saveTimeoutRef.current) {
+      clearTimeout(saveTimeoutRef.current);
+      saveTimeoutRef.current = null;
+    }
+    autosavedRef.current = false;
     await deleteNote(noteId);
     router.push("/dashboard");
   }
@@ -35,7 +35,7 @@ export default function NoteCard({ note, highlight }: NoteCardProps) {
         />
       ) : (
         <p className="mt-1 line-clamp-2 text-sm text-gray-600">
-          {note.content || "No content"}
+          {note.excerpt || note.content || "No content"}
         </p>
       )}
 
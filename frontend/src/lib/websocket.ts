@@ -5,16 +5,29 @@ import { getAccessToken } from "./axios";
 const WS_URL = process.env.NEXT_PUBLIC_WS_URL || "http://localhost:8080/ws";
 
 export interface NoteEvent {
-  type: "CREATED" | "UPDATED" | "DELETED";
-  noteId: string;
-  note: NoteData | null;
+  type: "CREATED" | "UPDATED" | "PATCHED" | "DELETED" | "BATCH" | "REPLAY" | "RESYNC";
+  noteId?: string;
+  note?: NoteData | null;
+  patch?: NoteDelta; // PATCHED only
+  events?: NoteEvent[]; // BATCH and REPLAY only
   timestamp: string;
+  seq?: number; // per-user delivery position
+  epoch?: string; // changes when the server's sequence restarts
+}
+
+// Replace deleteCount chars at start with insert; valid only against baseUpdatedAt
+export interface NoteDelta {
+  start: number;
+  deleteCount: number;
+  insert: string;
+  baseUpdatedAt: string;
 }
 
 export interface NoteData {
   id: string;
   title: string;
-  content: string | null;
+  content?: string | null;
+  excerpt?: string | null;
   userId: string;
   createdAt: string;
   updatedAt: string;
@@ -22,9 +35,45 @@ export interface NoteData {
 
 let stompClient: Client | null = null;
 
+// Last delivered position; survives reconnects so missed events can be replayed
+let lastEpoch: string | null = null;
+let lastSeq = 0;
+
+function requestReplay(): void {
+  if (!stompClient?.connected || lastEpoch === null) return;
+  stompClient.publish({
+    destination: "/app/notes/replay",
+    body: JSON.stringify({ epoch: lastEpoch, afterSeq: lastSeq }),
+  });
+}
+
 export function connectWebSocket(
-  onNoteEvent: (event: NoteEvent) => void
+  onNoteEvent: (event: NoteEvent) => void,
+  onResync?: () => void
 ): void {
+  // Applies sequenced events once, in order; a gap asks the server to replay it
+  const deliver = (event: NoteEvent) => {
+    if (event.seq === undefined || event.seq === null) {
+      onNoteEvent(event);
+      return;
+    }
+    if (event.epoch === lastEpoch && event.seq <= lastSeq) return;
+    if (event.epoch === lastEpoch && event.seq > lastSeq + 1) {
+      requestReplay();
+      return;
+    }
+    if (lastEpoch !== null && event.epoch !== lastEpoch) {
+      // Server sequence restarted; what was missed is unknown
+      lastEpoch = event.epoch ?? null;
+      lastSeq = event.seq;
+      onResync?.();
+      return;
+    }
+    lastEpoch = event.epoch ?? null;
+    lastSeq = event.seq;
+    onNoteEvent(event);
+  };
+
   if (stompClient?.active) return;
 
   const token = getAccessToken();
@@ -43,15 +92,29 @@ export function connectWebSocket(
       stompClient!.subscribe("/user/queue/notes", (message: IMessage) => {
         try {
           const event: NoteEvent = JSON.parse(message.body);
-          onNoteEvent(event);
+          if (event.type === "REPLAY") {
+            event.events?.forEach(deliver);
+          } else if (event.type === "RESYNC") {
+            lastEpoch = event.epoch ?? null;
+            lastSeq = event.seq ?? 0;
+            onResync?.();
+          } else {
+            deliver(event);
+          }
         } catch (e) {
           console.error("[WS] Failed to parse message:", e);
         }
       });
+      // Catch up on anything sent while we were disconnected
+      requestReplay();
     },
     onStompError: (frame) => {
       console.error("[WS] STOMP error:", frame.headers["message"]);
     },
+    onWebSocketClose: () => {
+      // Jittered retry so clients dropped together (e.g. by a deploy) come back spread out
+      if (stompClient) stompClient.reconnectDelay = 2000 + Math.floor(Math.random() * 8000);
+    },
     onDisconnect: () => {
       console.log("[WS] Disconnected");
     },
@@ -64,6 +127,8 @@ export function disconnectWebSocket(): void {
   if (stompClient?.active) {
     stompClient.deactivate();
     stompClient = null;
+    lastEpoch = null;
+    lastSeq = 0;
     console.log("[WS] Deactivated");
   }
 }
@@ -5,7 +5,8 @@ import { NoteEvent } from "@/lib/websocket";
 export interface Note {
   id: string;
   title: string;
-  content: string | null;
+  content?: string | null;
+  excerpt?: string | null;
   userId: string;
   createdAt: string;
   updatedAt: string;
@@ -37,10 +38,11 @@ interface NoteState {
   fetchNotes: (page?: number, size?: number) => Promise<void>;
   fetchNote: (id: string) => Promise<void>;
   createNote: (title: string, content?: string) => Promise<Note>;
-  updateNote: (id: string, title?: string, content?: string) => Promise<Note>;
+  updateNote: (id: string, title?: string, content?: string, autosave?: boolean) => Promise<Note>;
   deleteNote: (id: string) => Promise<void>;
   searchNotes: (query: string, page?: number, size?: number) => Promise<void>;
   handleNoteEvent: (event: NoteEvent) => void;
+  resync: () => Promise<void>;
   clearCurrentNote: () => void;
   clearError: () => void;
 }
@@ -67,7 +69,8 @@ export const useNoteStore = create<NoteState>((set, get) => ({
     set({ isLoading: true, error: null });
     try {
       const { data } = await api.get("/api/notes", {
-        params: { page, size },
+        // The list only renders a snippet, so skip full content
+        params: { page, size, fields: "id,title,excerpt,userId,createdAt,updatedAt" },
       });
       set({
         notes: data.content,
@@ -116,13 +119,16 @@ export const useNoteStore = create<NoteState>((set, get) => ({
     }
   },
 
-  updateNote: async (id, title, content) => {
+  updateNote: async (id, title, content, autosave = false) => {
     set({ isLoading: true, error: null });
     try {
       const body: Record<string, string | undefined> = {};
       if (title !== undefined) body.title = title;
       if (content !== undefined) body.content = content;
-      const { data } = await api.put(`/api/notes/${id}`, body);
+      // Autosaves are buffered server-side; a plain PUT is an explicit save
+      const { data } = await api.put(`/api/notes/${id}`, body, {
+        params: autosave ? { autosave: true } : undefined,
+      });
       // Update in list
       set((state) => ({
         notes: state.notes.map((n) => (n.id === id ? data : n)),
@@ -158,7 +164,8 @@ export const useNoteStore = create<NoteState>((set, get) => ({
     set({ isLoading: true, error: null });
     try {
       const { data } = await api.get("/api/notes/search", {
-        params: { q: query, page, size },
+        // Totals cost an extra count; a capped estimate is enough for the pager
+        params: { q: query, page, size, total: "estimate" },
       });
       set({
         searchResults: data.content,
@@ -202,6 +209,39 @@ export const useNoteStore = create<NoteState>((set, get) => ({
           });
         }
         break;
+      case "PATCHED":
+        if (event.note && event.patch) {
+          const meta = event.note;
+          const patch = event.patch;
+          set({
+            // List entries carry no content; only metadata changes there
+            notes: state.notes.map((n) =>
+              n.id === event.noteId ? { ...n, ...meta, content: n.content } : n
+            ),
+          });
+          const current = state.currentNote;
+          if (current?.id === event.noteId) {
+            if (current.content != null && current.updatedAt === patch.baseUpdatedAt) {
+              const content =
+                current.content.slice(0, patch.start) +
+                patch.insert +
+                current.content.slice(patch.start + patch.deleteCount);
+              set({ currentNote: { ...current, ...meta, content } });
+            } else {
+              // Missed the base version; fetch the full note instead
+              api
+                .get(`/api/notes/${event.noteId}`)
+                .then(({ data }) => {
+                  if (get().currentNote?.id === data.id) set({ currentNote: data });
+                })
+                .catch(() => {});
+            }
+          }
+        }
+        break;
+      case "BATCH":
+        event.events?.forEach((e) => get().handleNoteEvent(e));
+        break;
       case "DELETED":
         set({
           notes: state.notes.filter((n) => n.id !== event.noteId),
@@ -214,6 +254,20 @@ export const useNoteStore = create<NoteState>((set, get) => ({
     }
   },
 
+  // Missed events could not be replayed: reload what is on screen
+  resync: async () => {
+    const { pageInfo, currentNote } = get();
+    await get().fetchNotes(pageInfo.page, pageInfo.size);
+    if (currentNote) {
+      try {
+        const { data } = await api.get(`/api/notes/${currentNote.id}`);
+        if (get().currentNote?.id === data.id) set({ currentNote: data });
+      } catch {
+        // Deleted meanwhile; keep what is shown
+      }
+    }
+  },
+
   clearCurrentNote: () => set({ currentNote: null }),
   clearError: () => set({ error: null }),
 }));